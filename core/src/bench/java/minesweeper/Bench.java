@@ -0,0 +1,59 @@
+package minesweeper;
+
+/**
+ * Minimal timing harness shared by the benchmarks.
+ */
+final class Bench {
+	/**
+	 * Sink for benchmark results, preventing the JIT from eliminating dead code.
+	 */
+	static volatile long blackhole;
+
+	private Bench() {}
+
+	interface Operation {
+		/**
+		 * Performs one iteration of the benchmarked operation.
+		 *
+		 * @return Any value derived from the result.
+		 */
+		long run();
+	}
+
+	/**
+	 * Measures the average time of an operation after a warmup.
+	 *
+	 * @param minNanos The minimum total time to measure for.
+	 * @param op       The operation.
+	 * @return The average time per operation in nanoseconds.
+	 */
+	static double measure(long minNanos, Operation op) {
+		long sink = 0;
+		for (long end = System.nanoTime() + minNanos / 2; System.nanoTime() < end; ) sink += op.run();
+
+		long iterations = 0, start = System.nanoTime(), elapsed;
+		do {
+			sink += op.run();
+			++iterations;
+		} while ((elapsed = System.nanoTime() - start) < minNanos);
+		blackhole += sink;
+		return (double) elapsed / iterations;
+	}
+
+	static double measure(Operation op) {
+		return measure(1_000_000_000L, op);
+	}
+
+	/**
+	 * Runs a benchmark on a thread with a large stack, since big openings recurse deeply in the flood fill.
+	 */
+	static void runWithLargeStack(Runnable benchmark) throws InterruptedException {
+		Thread thread = new Thread(null, benchmark, "benchmark", 1L << 30);
+		thread.start();
+		thread.join();
+	}
+
+	static void report(String name, double nanosPerOp, String details) {
+		System.out.printf("%-40s %12.1f ns/op  %s%n", name, nanosPerOp, details);
+	}
+}
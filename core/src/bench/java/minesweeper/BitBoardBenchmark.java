@@ -0,0 +1,71 @@
+package minesweeper;
+
+import java.util.Random;
+
+/**
+ * Compares bulk queries on the byte-per-tile {@link Board} with the bit planes of {@link BitBoard}.
+ */
+public final class BitBoardBenchmark {
+	public static void main(String[] args) throws InterruptedException {
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : 4000;
+		Bench.runWithLargeStack(() -> run(size));
+	}
+
+	private static void run(int size) {
+		Board board = Board.generate(size, size, size * size / 6, new Random(1));
+		Random random = new Random(2);
+		for (int i = 0; i < size * size / 20; ++i) {
+			int x = random.nextInt(size), y = random.nextInt(size);
+			if ((board.getTile(x, y) & Board.MINE_BIT) != 0) board.toggleFlag(x, y);
+			else board.clearTiles(new Coord(x, y));
+		}
+		BitBoard bits = new BitBoard(board), otherBits = new BitBoard(board);
+		Board other = new Board(board);
+		long tiles = (long) size * size;
+		System.out.printf("%dx%d: %.3f bytes/tile as bit planes, 1 byte/tile as bytes%n",
+				size, size, 3.0 * ((tiles + 63) / 64) * 8 / tiles);
+
+		long[] count = new long[1];
+		report("count flags, bytes", tiles, Bench.measure(() -> {
+			count[0] = 0;
+			board.forEachColumn(new Board.Bounds(0, 0, size, size), (x, column, fromY, toY) -> {
+				int c = 0;
+				for (int y = fromY; y < toY; ++y) c += column[y] >> 6 & 1;
+				count[0] += c;
+			});
+			return count[0];
+		}));
+		report("count flags, bit planes", tiles, Bench.measure(bits::countFlags));
+
+		report("check win, bytes", tiles, Bench.measure(() -> {
+			count[0] = 0;
+			board.forEachColumn(new Board.Bounds(0, 0, size, size), (x, column, fromY, toY) -> {
+				int c = 0;
+				for (int y = fromY; y < toY; ++y) c += (column[y] & (Board.MINE_BIT | Board.REVEALED_BIT)) == 0 ? 1 : 0;
+				count[0] += c;
+			});
+			return count[0];
+		}));
+		report("check win, bit planes", tiles, Bench.measure(() -> bits.isWon() ? 1 : 0));
+
+		report("equals, bytes", tiles, Bench.measure(() -> board.equals(other) ? 1 : 0));
+		report("equals, bit planes", tiles, Bench.measure(() -> bits.equals(otherBits) ? 1 : 0));
+
+		report("reveal mines, bytes", tiles, Bench.measure(() -> {
+			for (int x = 0; x < size; ++x)
+				for (int y = 0; y < size; ++y) {
+					int tile = other.getTile(x, y);
+					if ((tile & Board.MINE_BIT) != 0) other.setState(x, y, tile & Board.FLAG_BIT | Board.REVEALED_BIT);
+				}
+			return other.getRemainingTiles();
+		}));
+		report("reveal mines, bit planes", tiles, Bench.measure(() -> {
+			otherBits.revealMines();
+			return otherBits.getRemainingTiles();
+		}));
+	}
+
+	private static void report(String name, long tiles, double nanos) {
+		Bench.report(name, nanos, String.format("%.0f Mtiles/s", tiles / nanos * 1e3));
+	}
+}
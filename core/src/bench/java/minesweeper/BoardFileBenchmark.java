@@ -0,0 +1,51 @@
+package minesweeper;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+/**
+ * Saves and loads a large board through {@link BoardFile}, reporting file size, throughput and heap growth.
+ */
+public final class BoardFileBenchmark {
+	public static void main(String[] args) throws IOException {
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+		long tiles = (long) size * size;
+		Board board = Board.generate(size, size, (int) (tiles / 100), new Random(1));
+		Random random = new Random(2);
+		for (int i = 0; i < 1000; ++i) board.toggleFlag(random.nextInt(size), random.nextInt(size));
+
+		Path path = Files.createTempFile("board", ".msbd");
+		try {
+			long start = System.nanoTime();
+			try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+				BoardFile.write(board, channel);
+			}
+			long writeNanos = System.nanoTime() - start;
+
+			Runtime runtime = Runtime.getRuntime();
+			System.gc();
+			long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+			start = System.nanoTime();
+			Board read;
+			try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+				read = BoardFile.read(channel);
+			}
+			long readNanos = System.nanoTime() - start;
+			long heapGrowth = runtime.totalMemory() - runtime.freeMemory() - heapBefore;
+			if (!board.equals(read)) throw new AssertionError("Board did not survive the round trip.");
+
+			System.out.printf("%d tiles, file %d bytes (%.4f bytes/tile)%n", tiles, Files.size(path),
+					(double) Files.size(path) / tiles);
+			Bench.report("write", (double) writeNanos / tiles, String.format("%.0f Mtiles/s", tiles * 1e3 / writeNanos));
+			Bench.report("read", (double) readNanos / tiles, String.format("%.0f Mtiles/s, heap grew by %.2f bytes/tile",
+					tiles * 1e3 / readNanos, (double) heapGrowth / tiles));
+			Bench.blackhole += read.getRemainingTiles();
+		} finally {
+			Files.delete(path);
+		}
+	}
+}
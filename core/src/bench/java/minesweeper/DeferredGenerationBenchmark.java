@@ -0,0 +1,30 @@
+package minesweeper;
+
+import java.util.Random;
+
+/**
+ * Compares the time until a board can be shown for eager and deferred generation,
+ * and the cost the deferred generation adds to the first click.
+ */
+public final class DeferredGenerationBenchmark {
+	public static void main(String[] args) throws InterruptedException {
+		Bench.runWithLargeStack(DeferredGenerationBenchmark::run);
+	}
+
+	private static void run() {
+		for (int size : new int[]{100, 1000, 4000}) {
+			int numMines = size * size / 20;
+			Random random = new Random(1);
+			double eager = Bench.measure(() -> Board.generate(size, size, numMines, random).getRemainingTiles());
+			double deferred = Bench.measure(() -> Board.deferred(size, size, numMines, random.nextLong()).getRemainingTiles());
+			double firstClick = Bench.measure(() -> {
+				Board board = Board.deferred(size, size, numMines, random.nextLong());
+				return board.clearTiles(new Coord(size / 2, size / 2)).dirtyRegion.maxX;
+			});
+			System.out.printf("%dx%d, %d mines%n", size, size, numMines);
+			Bench.report("eager generate", eager, "");
+			Bench.report("deferred create", deferred, "");
+			Bench.report("deferred create + first click", firstClick, "");
+		}
+	}
+}
@@ -0,0 +1,52 @@
+package minesweeper;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+/**
+ * Measures the encoded size and the encode/decode throughput of {@link BoardDelta} on large reveals.
+ */
+public final class DeltaBenchmark {
+	public static void main(String[] args) throws InterruptedException {
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+		Bench.runWithLargeStack(() -> run(size));
+	}
+
+	private static void run(int size) {
+		for (double density : new double[]{0.005, 0.02, 0.08}) {
+			Board board = Board.generate(size, size, (int) (density * size * size), new Random(1));
+			Board replica = new Board(board);
+			// Click around until a large opening appears
+			Random random = new Random(2);
+			Board.Bounds region = Board.Bounds.ZERO_SIZE;
+			for (int i = 0; i < 100 && area(region) < size * size / 4; ++i)
+				region = Board.Bounds.combine(region,
+						board.clearTiles(new Coord(random.nextInt(size), random.nextInt(size))).dirtyRegion);
+			final Board.Bounds dirtyRegion = region;
+
+			ByteBuffer buf = ByteBuffer.allocate(BoardDelta.maxEncodedSize(dirtyRegion));
+			double encode = Bench.measure(() -> {
+				buf.clear();
+				BoardDelta.encode(board, replica, dirtyRegion, buf);
+				return buf.position();
+			});
+			int encodedSize = buf.position();
+			double decode = Bench.measure(() -> {
+				buf.rewind();
+				BoardDelta.apply(replica, buf);
+				return replica.getRemainingTiles();
+			});
+			if (!board.equals(replica)) throw new AssertionError("Replica diverged.");
+
+			long tiles = area(dirtyRegion);
+			System.out.printf("density %.1f%%: region %d tiles, %d bytes encoded (%.4f bytes/tile, raw %d bytes)%n",
+					100 * density, tiles, encodedSize, (double) encodedSize / tiles, tiles);
+			Bench.report("encode", encode, String.format("%.0f Mtiles/s", tiles / encode * 1e3));
+			Bench.report("decode", decode, String.format("%.0f Mtiles/s", tiles / decode * 1e3));
+		}
+	}
+
+	private static long area(Board.Bounds b) {
+		return (long) (b.maxX - b.minX) * (b.maxY - b.minY);
+	}
+}
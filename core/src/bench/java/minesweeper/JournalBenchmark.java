@@ -0,0 +1,49 @@
+package minesweeper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Measures the latency that {@link MoveJournal} adds to the thread making the moves.
+ */
+public final class JournalBenchmark {
+	private static final int MOVES = 200_000;
+
+	public static void main(String[] args) throws IOException {
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		Board board = Board.generate(size, size, size * size / 50, new Random(1));
+		Random random = new Random(2);
+		long[] moves = new long[MOVES];
+		for (int i = 0; i < MOVES; ++i)
+			moves[i] = Move.pack(Move.Type.FLAG, random.nextInt(size), random.nextInt(size));
+
+		Path dir = Files.createTempDirectory("journal");
+		try (MoveJournal journal = new MoveJournal(dir, board)) {
+			long[] latencies = new long[MOVES];
+			for (int i = 0; i < MOVES; ++i) {
+				long start = System.nanoTime();
+				journal.record(moves[i]);
+				latencies[i] = System.nanoTime() - start;
+				// Pace the moves somewhat like a fast player or bot would
+				if ((i & 1023) == 0) Thread.yield();
+			}
+			long start = System.nanoTime();
+			journal.sync();
+			long syncNanos = System.nanoTime() - start;
+
+			Arrays.sort(latencies);
+			System.out.printf("record(): p50 %d ns, p99 %d ns, p99.9 %d ns, max %d ns%n",
+					latencies[MOVES / 2], latencies[MOVES * 99 / 100], latencies[MOVES * 999 / 1000], latencies[MOVES - 1]);
+			System.out.printf("time to make all moves durable after the last: %.2f ms%n", syncNanos / 1e6);
+		} finally {
+			try (Stream<Path> files = Files.list(dir)) {
+				for (Path file : (Iterable<Path>) files::iterator) Files.delete(file);
+			}
+			Files.delete(dir);
+		}
+	}
+}
@@ -0,0 +1,47 @@
+package minesweeper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Generates a large board into a memory-mapped file with {@link MappedBoard}, reporting throughput and heap growth.
+ * <p>
+ * Run with a heap smaller than the board, e.g. {@code -Xmx64m}, to check that the heap use does not grow with it.
+ */
+public final class MappedBoardBenchmark {
+	public static void main(String[] args) throws IOException {
+		int width = args.length > 0 ? Integer.parseInt(args[0]) : 20000;
+		int height = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+		long tiles = (long) width * height;
+		Path path = Files.createTempFile("board", ".msmb");
+		try {
+			Runtime runtime = Runtime.getRuntime();
+			System.gc();
+			long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+			long start = System.nanoTime();
+			MappedBoard.generate(path, width, height, tiles / 5, new Random(1));
+			long nanos = System.nanoTime() - start;
+			long heapGrowth = runtime.totalMemory() - runtime.freeMemory() - heapBefore;
+
+			MappedBoard view = MappedBoard.open(path);
+			long checksum = 0;
+			byte[] column = new byte[height];
+			start = System.nanoTime();
+			for (int x = 0; x < width; ++x) {
+				view.copyColumn(x, column, 0);
+				for (byte tile : column) checksum += tile;
+			}
+			long scanNanos = System.nanoTime() - start;
+
+			System.out.printf("%dx%d, %d tiles, max heap %d MB%n", width, height, tiles, runtime.maxMemory() >> 20);
+			Bench.report("generate", (double) nanos / tiles, String.format("%.0f Mtiles/s, heap grew by %d KB",
+					tiles * 1e3 / nanos, heapGrowth >> 10));
+			Bench.report("scan view", (double) scanNanos / tiles, String.format("%.0f Mtiles/s", tiles * 1e3 / scanNanos));
+			Bench.blackhole += checksum;
+		} finally {
+			Files.delete(path);
+		}
+	}
+}
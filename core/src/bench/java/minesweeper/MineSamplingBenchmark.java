@@ -0,0 +1,27 @@
+package minesweeper;
+
+import java.util.Random;
+
+/**
+ * Measures the throughput of mine placement across densities, for eager and deferred boards.
+ */
+public final class MineSamplingBenchmark {
+	public static void main(String[] args) {
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+		long tiles = (long) size * size;
+		Random random = new Random(1);
+		for (double density : new double[]{0.01, 0.05, 0.2, 0.5, 0.75, 0.9}) {
+			int numMines = (int) (density * tiles);
+			double eager = Bench.measure(() -> Board.generate(size, size, numMines, random).getRemainingTiles());
+			Board board = new Board(new byte[size][size], 0);
+			double deferred = Bench.measure(() -> {
+				board.reset(numMines, random.nextLong());
+				// A mine-free first click only reveals a single tile at high densities
+				return board.clearTiles(new Coord(0, 0)).dirtyRegion.maxX;
+			});
+			System.out.printf("%dx%d, density %.0f%%%n", size, size, 100 * density);
+			Bench.report("generate", eager, String.format("%.1f Mmines/s", numMines / eager * 1e3));
+			Bench.report("reset + first clear", deferred, String.format("%.1f Mmines/s", numMines / deferred * 1e3));
+		}
+	}
+}
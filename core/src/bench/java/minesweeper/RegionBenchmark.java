@@ -0,0 +1,70 @@
+package minesweeper;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+/**
+ * Compares the bulk region operations of {@link Board} with the equivalent per-tile loops.
+ */
+public final class RegionBenchmark {
+	public static void main(String[] args) {
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+		Board board = Board.generate(size, size, size * size / 50, new Random(1));
+		Board.Bounds region = new Board.Bounds(size / 8, size / 8, size - size / 8, size - size / 8);
+		int width = region.maxX - region.minX, height = region.maxY - region.minY;
+		long tiles = (long) width * height;
+		byte[] array = new byte[(int) tiles];
+		ByteBuffer direct = ByteBuffer.allocateDirect((int) tiles);
+
+		report("getTile row-major", tiles, Bench.measure(() -> {
+			int i = 0;
+			for (int y = region.minY; y < region.maxY; ++y)
+				for (int x = region.minX; x < region.maxX; ++x)
+					array[i++] = (byte) board.getTile(x, y);
+			return array[i - 1];
+		}));
+		report("copyRegion byte[]", tiles, Bench.measure(() -> {
+			board.copyRegion(region, array, 0);
+			return array[array.length - 1];
+		}));
+		report("copyRegion direct ByteBuffer", tiles, Bench.measure(() -> {
+			direct.clear();
+			board.copyRegion(region, direct);
+			return direct.position();
+		}));
+
+		report("getTile count revealed", tiles, Bench.measure(() -> {
+			long count = 0;
+			for (int x = region.minX; x < region.maxX; ++x)
+				for (int y = region.minY; y < region.maxY; ++y)
+					count += board.getTile(x, y) >> 5 & 1;
+			return count;
+		}));
+		long[] count = new long[1];
+		report("forEachColumn count revealed", tiles, Bench.measure(() -> {
+			count[0] = 0;
+			board.forEachColumn(region, (x, column, fromY, toY) -> {
+				long c = 0;
+				for (int y = fromY; y < toY; ++y) c += column[y] >> 5 & 1;
+				count[0] += c;
+			});
+			return count[0];
+		}));
+
+		report("toggleFlag per tile", tiles, Bench.measure(() -> {
+			for (int x = region.minX; x < region.maxX; ++x)
+				for (int y = region.minY; y < region.maxY; ++y)
+					board.toggleFlag(x, y);
+			return board.getTile(region.minX, region.minY);
+		}));
+		report("setBits + clearBits flag", 2 * tiles, Bench.measure(() -> {
+			board.setBits(region, Board.FLAG_BIT);
+			board.clearBits(region, Board.FLAG_BIT);
+			return board.getTile(region.minX, region.minY);
+		}));
+	}
+
+	private static void report(String name, long tiles, double nanos) {
+		Bench.report(name, nanos, String.format("%.0f Mtiles/s", tiles / nanos * 1e3));
+	}
+}
@@ -0,0 +1,47 @@
+package minesweeper;
+
+import java.util.Random;
+
+/**
+ * Measures how the throughput of {@link SharedBoard} scales with the number of writer threads.
+ * <p>
+ * Each writer clicks random tiles, either in its own vertical stripe of the
+ * board or anywhere on it, until the board is mostly revealed.
+ */
+public final class SharedBoardBenchmark {
+	public static void main(String[] args) throws InterruptedException {
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : 4000;
+		int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : 2 * Runtime.getRuntime().availableProcessors();
+		Board template = Board.generate(size, size, size * size / 8, new Random(1));
+		System.out.printf("%d processors%n", Runtime.getRuntime().availableProcessors());
+		for (boolean disjoint : new boolean[]{true, false})
+			for (int threads = 1; threads <= Math.max(maxThreads, 1); threads *= 2) {
+				// Warm up once, then measure
+				run(template, threads, disjoint);
+				double tilesPerSecond = run(template, threads, disjoint);
+				System.out.printf("%-9s %3d writers: %8.1f Mtiles/s%n", disjoint ? "disjoint" : "shared", threads, tilesPerSecond / 1e6);
+			}
+	}
+
+	private static double run(Board template, int numThreads, boolean disjoint) throws InterruptedException {
+		SharedBoard board = new SharedBoard(new Board(template));
+		int size = board.getWidth(), initial = board.getRemainingTiles();
+		int clicksPerThread = 4 * size * size / 64 / numThreads;
+		Thread[] threads = new Thread[numThreads];
+		for (int t = 0; t < numThreads; ++t) {
+			int stripe = t;
+			threads[t] = new Thread(() -> {
+				Random random = new Random(stripe);
+				int minX = disjoint ? stripe * size / numThreads : 0,
+						stripeWidth = disjoint ? (stripe + 1) * size / numThreads - minX : size;
+				for (int i = 0; i < clicksPerThread; ++i)
+					board.clearTiles(new Coord(minX + random.nextInt(stripeWidth), random.nextInt(size)));
+			});
+		}
+		long start = System.nanoTime();
+		for (Thread thread : threads) thread.start();
+		for (Thread thread : threads) thread.join();
+		long elapsed = System.nanoTime() - start;
+		return (initial - board.getRemainingTiles()) / (elapsed / 1e9);
+	}
+}
@@ -0,0 +1,120 @@
+package minesweeper;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Compares the latency of readers copying small regions of a board while a writer
+ * keeps clearing tiles, using optimistic chunk reads versus a single global lock.
+ */
+public final class SnapshotBenchmark {
+	private static final int READ_SIZE = 48;
+
+	public static void main(String[] args) throws InterruptedException {
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+		int numReaders = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+		for (boolean optimistic : new boolean[]{false, true})
+			Bench.runWithLargeStack(() -> run(size, numReaders, optimistic));
+	}
+
+	private static void run(int size, int numReaders, boolean optimistic) {
+		Board board = Board.generate(size, size, size * size / 20, new Random(1));
+		if (optimistic) board.enableOptimisticReads();
+		ReentrantLock globalLock = new ReentrantLock();
+		AtomicBoolean done = new AtomicBoolean();
+		long[][] latencies = new long[numReaders][];
+		int[] counts = new int[numReaders];
+
+		Thread[] readers = new Thread[numReaders];
+		for (int r = 0; r < numReaders; ++r) {
+			int reader = r;
+			readers[r] = new Thread(() -> {
+				Random random = new Random(reader);
+				byte[] tiles = new byte[READ_SIZE * READ_SIZE];
+				long[] samples = new long[1 << 20];
+				int n = 0;
+				while (!done.get()) {
+					int x = random.nextInt(size - READ_SIZE), y = random.nextInt(size - READ_SIZE);
+					Board.Bounds region = new Board.Bounds(x, y, x + READ_SIZE, y + READ_SIZE);
+					long start = System.nanoTime();
+					if (optimistic) board.readRegion(region, tiles, 0);
+					else {
+						globalLock.lock();
+						try {
+							board.copyRegion(region, tiles, 0);
+						} finally {
+							globalLock.unlock();
+						}
+					}
+					long elapsed = System.nanoTime() - start;
+					if (n == samples.length) samples = Arrays.copyOf(samples, 2 * n);
+					samples[n++] = elapsed;
+					Bench.blackhole += tiles[0];
+				}
+				latencies[reader] = samples;
+				counts[reader] = n;
+			});
+			readers[r].start();
+		}
+
+		// The writer clears random tiles, resetting the board once most of it is revealed
+		Random random = new Random(2);
+		long moves = 0, start = System.nanoTime(), end = start + 5_000_000_000L;
+		while (System.nanoTime() < end) {
+			Coord c = new Coord(random.nextInt(size), random.nextInt(size));
+			if (optimistic) {
+				board.clearTiles(c);
+				if (board.getRemainingTiles() < size * size / 2) reset(board, null);
+			} else {
+				globalLock.lock();
+				try {
+					board.clearTiles(c);
+				} finally {
+					globalLock.unlock();
+				}
+				if (board.getRemainingTiles() < size * size / 2) reset(board, globalLock);
+			}
+			++moves;
+		}
+		long elapsed = System.nanoTime() - start;
+		done.set(true);
+		long[] merged = new long[0];
+		for (int r = 0; r < numReaders; ++r) {
+			try {
+				readers[r].join();
+			} catch (InterruptedException e) {
+				throw new RuntimeException(e);
+			}
+			int offset = merged.length;
+			merged = Arrays.copyOf(merged, offset + counts[r]);
+			System.arraycopy(latencies[r], 0, merged, offset, counts[r]);
+		}
+		Arrays.sort(merged);
+
+		System.out.printf("%s: writer %.0f moves/s, %d reads of %dx%d tiles%n", optimistic ? "optimistic chunks" : "global lock",
+				moves / (elapsed / 1e9), merged.length, READ_SIZE, READ_SIZE);
+		System.out.printf("  read latency p50 %d ns, p99 %d ns, p99.9 %d ns, max %d ns%n",
+				percentile(merged, 0.5), percentile(merged, 0.99), percentile(merged, 0.999), merged[merged.length - 1]);
+	}
+
+	/**
+	 * Hides all tiles again, one band of rows at a time so readers elsewhere can proceed.
+	 */
+	private static void reset(Board board, ReentrantLock globalLock) {
+		for (int y = 0; y < board.getHeight(); y += 64) {
+			Board.Bounds band = new Board.Bounds(0, y, board.getWidth(), Math.min(y + 64, board.getHeight()));
+			if (globalLock != null) globalLock.lock();
+			try {
+				board.clearBits(band, Board.REVEALED_BIT);
+			} finally {
+				if (globalLock != null) globalLock.unlock();
+			}
+		}
+	}
+
+	private static long percentile(long[] sorted, double p) {
+		return sorted[(int) Math.min(sorted.length - 1, p * sorted.length)];
+	}
+}
@@ -0,0 +1,61 @@
+package minesweeper;
+
+import java.util.Random;
+
+/**
+ * Compares generation, neighbour counting and flood fills across topologies.
+ * <p>
+ * The square topology uses dedicated code, while the others use neighbour
+ * tables. A copy of the square topology forces the table-driven paths, to
+ * show what the dedicated code saves.
+ */
+public final class TopologyBenchmark {
+	public static void main(String[] args) throws InterruptedException {
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+		Bench.runWithLargeStack(() -> {
+			run("square", Topology.SQUARE, size);
+			run("square, table-driven", Topology.SQUARE::forEachNeighbour, size);
+			run("torus", Topology.TORUS, size);
+			run("hex", Topology.HEX, size);
+		});
+	}
+
+	private static void run(String name, Topology topology, int size) {
+		long tiles = (long) size * size;
+		Random random = new Random(1);
+		report(name + ": generate", tiles, Bench.measure(() ->
+				Board.generate(size, size, (int) (tiles / 6), random, topology).getRemainingTiles()));
+
+		Board board = Board.generate(size, size, (int) (tiles / 6), new Random(2), topology);
+		report(name + ": count neighbours", tiles, Bench.measure(() -> {
+			long sum = 0;
+			for (int x = 0; x < size; ++x)
+				for (int y = 0; y < size; ++y) sum += board.countNeighbours(x, y, Board.MINE_BIT);
+			return sum;
+		}));
+
+		// Few mines, so that a single clear opens most of the board
+		Board sparse = Board.generate(size, size, (int) (tiles / 100), new Random(3), topology);
+		Coord start = firstEmptyTile(sparse);
+		Board.Bounds all = new Board.Bounds(0, 0, size, size);
+		int initial = sparse.getRemainingTiles();
+		sparse.clearTiles(start);
+		long revealed = initial - sparse.getRemainingTiles();
+		sparse.clearBits(all, Board.REVEALED_BIT);
+		report(name + ": flood fill", revealed, Bench.measure(() -> {
+			sparse.clearTiles(start);
+			sparse.clearBits(all, Board.REVEALED_BIT);
+			return sparse.getRemainingTiles();
+		}));
+	}
+
+	private static Coord firstEmptyTile(Board board) {
+		for (int x = 0; ; ++x)
+			for (int y = 0; y < board.getHeight(); ++y)
+				if (board.getTile(x, y) == 0) return new Coord(x, y);
+	}
+
+	private static void report(String name, long tiles, double nanos) {
+		Bench.report(name, nanos, String.format("%.0f Mtiles/s", tiles / nanos * 1e3));
+	}
+}
@@ -0,0 +1,210 @@
+package minesweeper;
+
+import java.util.Arrays;
+
+/**
+ * A board stored as separate bit planes for the mine, revealed and flag bits.
+ * <p>
+ * Tile {@code (x, y)} is bit {@code x * height + y} of every plane, matching the
+ * column-major order of {@link Board}. The neighbouring mine counts are not
+ * stored but derived from the mine plane when needed, so a tile takes three
+ * bits instead of a byte. Queries over all tiles, such as counting flags or
+ * checking for a win, process 64 tiles per operation.
+ */
+public final class BitBoard {
+	private final int width, height, numTiles;
+	private final long[] mines, revealed, flags;
+	/**
+	 * Number of remaining mine-free squares.
+	 */
+	private int remaining;
+	/**
+	 * Scratch stack of tile indices for the flood fill.
+	 */
+	private int[] stack = new int[64];
+
+	/**
+	 * Creates a copy of a board in bit plane representation.
+	 *
+	 * @param board The board to copy, a square board whose mines have been placed.
+	 */
+	public BitBoard(Board board) {
+		if (!board.isGenerated()) throw new IllegalArgumentException("Mines have not been placed yet.");
+		if (board.getTopology() != Topology.SQUARE) throw new IllegalArgumentException("Only square boards are supported.");
+		width = board.getWidth();
+		height = board.getHeight();
+		if ((long) width * height > Integer.MAX_VALUE) throw new IllegalArgumentException("Board is too large.");
+		numTiles = width * height;
+		int words = (numTiles + 63) >>> 6;
+		mines = new long[words];
+		revealed = new long[words];
+		flags = new long[words];
+		for (int x = 0, i = 0; x < width; ++x)
+			for (int y = 0; y < height; ++y, ++i) {
+				int tile = board.getTileUnchecked(x, y);
+				if ((tile & Board.MINE_BIT) != 0) mines[i >>> 6] |= 1L << i;
+				if ((tile & Board.REVEALED_BIT) != 0) revealed[i >>> 6] |= 1L << i;
+				if ((tile & Board.FLAG_BIT) != 0) flags[i >>> 6] |= 1L << i;
+			}
+		remaining = board.getRemainingTiles();
+	}
+
+	/**
+	 * Converts this board back into the byte-per-tile representation.
+	 */
+	public Board toBoard() {
+		byte[][] field = new byte[width][height];
+		for (int x = 0; x < width; ++x)
+			for (int y = 0; y < height; ++y) field[x][y] = (byte) getTileUnchecked(x, y);
+		return new Board(field, remaining);
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public int getRemainingTiles() {
+		return remaining;
+	}
+
+	/**
+	 * Returns the tile in the same format as {@link Board#getTile(int, int)}.
+	 */
+	public int getTile(int x, int y) {
+		if (x < 0 || x >= width || y < 0 || y >= height)
+			throw new IllegalArgumentException("Tile is out of bounds.");
+		return getTileUnchecked(x, y);
+	}
+
+	private int getTileUnchecked(int x, int y) {
+		int i = x * height + y;
+		return getNeighbouringMineCount(x, y) | (int) (mines[i >>> 6] >>> i & 1) << 4
+				| (int) (revealed[i >>> 6] >>> i & 1) << 5 | (int) (flags[i >>> 6] >>> i & 1) << 6;
+	}
+
+	public int getNeighbouringMineCount(int x, int y) {
+		int count = 0;
+		for (int nx = Math.max(x - 1, 0), endX = Math.min(x + 1, width - 1); nx <= endX; ++nx)
+			for (int ny = Math.max(y - 1, 0), endY = Math.min(y + 1, height - 1); ny <= endY; ++ny) {
+				int i = nx * height + ny;
+				count += (int) (mines[i >>> 6] >>> i & 1);
+			}
+		int i = x * height + y;
+		return count - (int) (mines[i >>> 6] >>> i & 1);
+	}
+
+	public void toggleFlag(int x, int y) {
+		if (x < 0 || x >= width || y < 0 || y >= height)
+			throw new IllegalArgumentException("Tile is out of bounds.");
+		int i = x * height + y;
+		if ((revealed[i >>> 6] >>> i & 1) == 0) flags[i >>> 6] ^= 1L << i;
+	}
+
+	public int countMines() {
+		return bitCount(mines);
+	}
+
+	public int countFlags() {
+		return bitCount(flags);
+	}
+
+	public int countRevealed() {
+		return bitCount(revealed);
+	}
+
+	private static int bitCount(long[] plane) {
+		int count = 0;
+		for (long word : plane) count += Long.bitCount(word);
+		return count;
+	}
+
+	/**
+	 * Returns whether all mine-free tiles have been revealed, by comparing the planes.
+	 */
+	public boolean isWon() {
+		for (int w = 0; w < mines.length; ++w)
+			if ((mines[w] | revealed[w]) != validBits(w)) return false;
+		return true;
+	}
+
+	/**
+	 * Returns whether exactly the mines are flagged.
+	 */
+	public boolean isCorrectlyFlagged() {
+		return Arrays.equals(mines, flags);
+	}
+
+	/**
+	 * Reveals all mines, as when the game is over.
+	 */
+	public void revealMines() {
+		for (int w = 0; w < mines.length; ++w) revealed[w] |= mines[w];
+	}
+
+	/**
+	 * Returns the mask of the bits of a word that belong to tiles.
+	 */
+	private long validBits(int w) {
+		int end = numTiles - (w << 6);
+		return end >= 64 ? -1L : (1L << end) - 1;
+	}
+
+	/**
+	 * Clears tiles, as {@link Board#clearTiles(Coord...)}.
+	 *
+	 * @param coords The coordinates of the squares to clear.
+	 * @return The region that needs to be redrawn and whether a mine was hit.
+	 */
+	public Board.ClearTileResult clearTiles(Coord... coords) {
+		int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, maxX = -1, maxY = -1;
+		boolean wasMine = false;
+		for (Coord c : coords) {
+			if (c.x < 0 || c.x >= width || c.y < 0 || c.y >= height)
+				throw new IllegalArgumentException("Specified coordinate is out of bounds.");
+			int i = c.x * height + c.y;
+			if (((revealed[i >>> 6] | flags[i >>> 6]) >>> i & 1) != 0) continue;
+			if ((mines[i >>> 6] >>> i & 1) != 0) wasMine = true;
+
+			int size = 0;
+			stack[size++] = i;
+			revealed[i >>> 6] |= 1L << i;
+			while (size > 0) {
+				int t = stack[--size], x = t / height, y = t - x * height;
+				if ((mines[t >>> 6] >>> t & 1) == 0) --remaining;
+				if (x < minX) minX = x;
+				if (x > maxX) maxX = x;
+				if (y < minY) minY = y;
+				if (y > maxY) maxY = y;
+				if ((mines[t >>> 6] >>> t & 1) != 0 || getNeighbouringMineCount(x, y) != 0) continue;
+
+				for (int nx = Math.max(x - 1, 0), endX = Math.min(x + 1, width - 1); nx <= endX; ++nx)
+					for (int ny = Math.max(y - 1, 0), endY = Math.min(y + 1, height - 1); ny <= endY; ++ny) {
+						int n = nx * height + ny;
+						if ((revealed[n >>> 6] >>> n & 1) != 0) continue;
+						revealed[n >>> 6] |= 1L << n;
+						if (size == stack.length) stack = Arrays.copyOf(stack, 2 * size);
+						stack[size++] = n;
+					}
+			}
+		}
+		Board.Bounds bounds = maxX < 0 ? Board.Bounds.ZERO_SIZE : new Board.Bounds(minX, minY, maxX + 1, maxY + 1);
+		return new Board.ClearTileResult(bounds, wasMine);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (!(obj instanceof BitBoard)) return false;
+		BitBoard other = (BitBoard) obj;
+		return width == other.width && height == other.height && Arrays.equals(mines, other.mines)
+				&& Arrays.equals(revealed, other.revealed) && Arrays.equals(flags, other.flags);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * (31 * Arrays.hashCode(mines) + Arrays.hashCode(revealed)) + Arrays.hashCode(flags);
+	}
+}
@@ -1,8 +1,12 @@
 package minesweeper;
 
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Objects;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.StampedLock;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
@@ -10,12 +14,31 @@ import java.util.stream.Stream;
 
 public final class Board implements Cloneable {
 	private static final int NEIGHBOURING_MASK = 0xF;
-	public static final int MINE_BIT = 1 << 4;
+	private static final int MINE_SHIFT = 4;
+	public static final int MINE_BIT = 1 << MINE_SHIFT;
 	/**
 	 * Cleared.
 	 */
 	public static final int REVEALED_BIT = 1 << 5;
 	public static final int FLAG_BIT = 1 << 6;
+	private static final int HASHED_BITS = MINE_BIT | REVEALED_BIT | FLAG_BIT;
+	/**
+	 * Number of tiles above which bulk work is split across threads.
+	 */
+	private static final int PARALLEL_THRESHOLD = 1 << 16;
+	/**
+	 * Number of columns transposed together when copying regions in row-major order.
+	 */
+	private static final int TRANSPOSE_STRIP = 32;
+	/**
+	 * Base-two logarithm of the side length of the chunks versioned for optimistic reads.
+	 */
+	static final int CHUNK_SHIFT = 6, CHUNK_SIZE = 1 << CHUNK_SHIFT;
+	/**
+	 * Number of optimistic attempts before a reader waits for the writer.
+	 */
+	private static final int MAX_OPTIMISTIC_ATTEMPTS = 4;
+	private static final int[] NO_TILES = {};
 
 	/**
 	 * A two-dimensional array of bit fields representing the field.
@@ -27,17 +50,157 @@ public final class Board implements Cloneable {
 	 * Number of remaining mine-free squares.
 	 */
 	private int remaining;
+	/**
+	 * Number of mines yet to be placed by the first clear, or zero if the mines have been placed.
+	 */
+	private int pendingMines;
+	/**
+	 * Seed for placing the pending mines.
+	 */
+	private long seed;
+	/**
+	 * Zobrist hash of the mine, revealed and flag bits of all tiles, see {@link #longHashCode()}.
+	 */
+	private long zobrist;
+	private final Topology topology;
+	/**
+	 * The neighbour offsets of the topology, or {@code null} for {@link Topology#SQUARE}, which has dedicated code.
+	 */
+	private final NeighbourTable neighbours;
+	/**
+	 * Scratch stack of coordinate pairs for flood fills on other topologies.
+	 */
+	private int[] fillStack;
+	/**
+	 * The result of {@link #clearTile(int, int)} and {@link #clearNeighbours(int, int)}, reused by every call.
+	 */
+	private ClearTileResult result;
+	/**
+	 * The generator the deferred mines are placed with, reseeded for every game.
+	 */
+	private Random placementRandom;
+	/**
+	 * Scratch array of the indices of the tiles kept free by the first clear.
+	 */
+	private int[] safeTiles;
+	private RevealListener revealListener;
+	/**
+	 * The locks of the chunks in column-major order, or {@code null} if optimistic reads are disabled.
+	 */
+	private StampedLock[] chunkLocks;
+	/**
+	 * The write stamps of the chunks locked by the current mutation, or zero for unlocked chunks.
+	 */
+	private long[] writeStamps;
+	/**
+	 * Indices of the chunks locked by the current mutation.
+	 */
+	private int[] lockedChunks;
+	private int numLockedChunks, chunksPerColumn;
 
 	public Board(Board b) {
 		field = new byte[b.getWidth()][b.getHeight()];
 		for (int i = 0; i < field.length; ++i)
 			System.arraycopy(b.field[i], 0, field[i], 0, field[0].length);
 		remaining = b.remaining;
+		zobrist = b.zobrist;
+		pendingMines = b.pendingMines;
+		seed = b.seed;
+		topology = b.topology;
+		neighbours = b.neighbours;
 	}
 
+	/**
+	 * Wraps a field without copying it.
+	 * <p>
+	 * The hash is computed from the field here, so the field must not be
+	 * modified afterwards except through this board.
+	 *
+	 * @param field     The tiles, indexed by x- and then y-coordinate.
+	 * @param remaining The number of mine-free tiles that are not revealed.
+	 */
 	public Board(byte[][] field, int remaining) {
+		this(field, remaining, 0, 0);
+	}
+
+	Board(byte[][] field, int remaining, int pendingMines, long seed) {
+		this(field, remaining, pendingMines, seed, Topology.SQUARE);
+	}
+
+	private Board(byte[][] field, int remaining, int pendingMines, long seed, Topology topology) {
 		this.field = field;
 		this.remaining = remaining;
+		this.pendingMines = pendingMines;
+		this.seed = seed;
+		this.topology = topology;
+		neighbours = topology == Topology.SQUARE ? null : new NeighbourTable(topology, field.length, field[0].length);
+		zobrist = computeHash();
+	}
+
+	/**
+	 * Creates a board whose mines are placed by the first clear.
+	 * <p>
+	 * The mines avoid the 3x3 area around the first tile that is cleared,
+	 * so the first clear always opens up an area. Creation does no work
+	 * besides allocating the field.
+	 *
+	 * @param width    The width of the board.
+	 * @param height   The height of the board.
+	 * @param numMines The number of mines.
+	 * @param seed     The seed for placing the mines.
+	 * @return The board with all tiles hidden.
+	 */
+	public static Board deferred(int width, int height, int numMines, long seed) {
+		return deferred(width, height, numMines, seed, Topology.SQUARE);
+	}
+
+	/**
+	 * Creates a board with the specified topology whose mines are placed by the first clear.
+	 * <p>
+	 * The mines avoid the first tile that is cleared and its neighbours.
+	 *
+	 * @param width    The width of the board.
+	 * @param height   The height of the board.
+	 * @param numMines The number of mines.
+	 * @param seed     The seed for placing the mines.
+	 * @param topology The neighbourhood of the tiles.
+	 * @return The board with all tiles hidden.
+	 * @see #deferred(int, int, int, long)
+	 */
+	public static Board deferred(int width, int height, int numMines, long seed, Topology topology) {
+		Board board = new Board(new byte[width][height], width * height - numMines, numMines, seed, topology);
+		board.checkSafeMines(numMines);
+		return board;
+	}
+
+	/**
+	 * Throws an {@link IllegalArgumentException} unless the mines fit outside the neighbourhood of any tile.
+	 */
+	private void checkSafeMines(int numMines) {
+		int width = getWidth(), height = getHeight(),
+				safeArea = neighbours == null ? Math.min(width, 3) * Math.min(height, 3) : 1 + neighbours.maxNeighbours;
+		if (numMines < 0 || numMines > width * height - safeArea)
+			throw new IllegalArgumentException("Too many mines to keep the first clear safe.");
+	}
+
+	/**
+	 * Turns this board into a {@link #deferred(int, int, int, long) deferred} board of the same size.
+	 * <p>
+	 * Reuses the storage of the board, so playing many games does not allocate a field per game.
+	 *
+	 * @param numMines The number of mines.
+	 * @param seed     The seed for placing the mines.
+	 */
+	public void reset(int numMines, long seed) {
+		checkSafeMines(numMines);
+		int width = getWidth(), height = getHeight();
+		lockRegion(0, 0, width, height);
+		for (byte[] column : field) Arrays.fill(column, (byte) 0);
+		unlockChunks();
+		zobrist = 0;
+		remaining = width * height - numMines;
+		pendingMines = numMines;
+		this.seed = seed;
 	}
 
 	/**
@@ -49,20 +212,163 @@ public final class Board implements Cloneable {
 	 * @return The generated board.
 	 */
 	public static Board generate(int width, int height, int numMines) {
-		byte[][] field = new byte[width][height];
-		Board board = new Board(field, width * height - numMines);
-		Random random = new Random();
-		while (numMines > 0) {
-			int x = random.nextInt(width), y = random.nextInt(height);
-			if (field[x][y] != 0) continue;
-			field[x][y] |= MINE_BIT;
-			board.getNeighbouringTiles(x, y).forEach(c -> ++field[c.x][c.y]);
-			--numMines;
-		}
+		return generate(width, height, numMines, new Random());
+	}
 
+	/**
+	 * Generates a new Minesweeper board using the specified source of randomness.
+	 * <p>
+	 * Boards generated from generators with the same seed are identical.
+	 *
+	 * @param width    The width of the generated board.
+	 * @param height   The height of the generated board.
+	 * @param numMines The number of mines.
+	 * @param random   The random number generator to place the mines with.
+	 * @return The generated board.
+	 */
+	public static Board generate(int width, int height, int numMines, Random random) {
+		return generate(width, height, numMines, random, Topology.SQUARE);
+	}
+
+	/**
+	 * Generates a new Minesweeper board with the specified topology.
+	 *
+	 * @param width    The width of the generated board.
+	 * @param height   The height of the generated board.
+	 * @param numMines The number of mines.
+	 * @param random   The random number generator to place the mines with.
+	 * @param topology The neighbourhood of the tiles.
+	 * @return The generated board.
+	 * @see #generate(int, int, int, Random)
+	 */
+	public static Board generate(int width, int height, int numMines, Random random, Topology topology) {
+		if (numMines < 0 || numMines > width * height) throw new IllegalArgumentException("Too many mines.");
+		Board board = new Board(new byte[width][height], width * height - numMines, 0, 0, topology);
+		board.sampleMines(numMines, random, NO_TILES, 0);
 		return board;
 	}
 
+	/**
+	 * Places the pending mines of a deferred board outside the area around a tile.
+	 *
+	 * @param cx The x-coordinate of the tile to keep safe.
+	 * @param cy The y-coordinate of the tile to keep safe.
+	 */
+	private void placeMines(int cx, int cy) {
+		int height = getHeight(), numSafe = 0;
+		if (safeTiles == null) safeTiles = new int[neighbours == null ? 9 : 1 + neighbours.maxNeighbours];
+		int[] safe = safeTiles;
+		if (neighbours == null) {
+			for (int x = Math.max(cx - 1, 0), maxX = Math.min(cx + 1, getWidth() - 1); x <= maxX; ++x)
+				for (int y = Math.max(cy - 1, 0), maxY = Math.min(cy + 1, height - 1); y <= maxY; ++y)
+					safe[numSafe++] = x * height + y;
+		} else {
+			int[] offsets = neighbours.get(cx, cy);
+			safe[numSafe++] = cx * height + cy;
+			for (int k = 0; k < offsets.length; k += 2) safe[numSafe++] = (cx + offsets[k]) * height + cy + offsets[k + 1];
+			Arrays.sort(safe, 0, numSafe);
+		}
+		if (placementRandom == null) placementRandom = new Random(seed);
+		else placementRandom.setSeed(seed);
+		lockRegion(0, 0, getWidth(), height);
+		sampleMines(pendingMines, placementRandom, safe, numSafe);
+		pendingMines = 0;
+	}
+
+	/**
+	 * Places mines on a uniformly random subset of the tiles outside a set.
+	 * <p>
+	 * Uses Floyd's algorithm with the mine bits as the set, so needs exactly one
+	 * random number per mine and never retries. Boards more than half full
+	 * are instead filled with mines, and the tiles to keep free are sampled.
+	 *
+	 * @param numMines The number of mines, at most the number of tiles outside the set.
+	 * @param random   The random number generator.
+	 * @param excluded    The ascending column-major indices of the tiles to keep free of mines.
+	 * @param numExcluded The number of indices in the array.
+	 */
+	private void sampleMines(int numMines, Random random, int[] excluded, int numExcluded) {
+		int height = getHeight(), n = getWidth() * height - numExcluded;
+		boolean dense = numMines > n / 2;
+		if (dense) {
+			for (byte[] column : field)
+				for (int y = 0; y < height; ++y) column[y] |= MINE_BIT;
+			for (int i = 0; i < numExcluded; ++i) field[excluded[i] / height][excluded[i] % height] &= ~MINE_BIT;
+		}
+		// Floyd's algorithm: every iteration adds one index of [0, j] to the sample
+		for (int j = n - (dense ? n - numMines : numMines); j < n; ++j) {
+			int t = tileIndex(random.nextInt(j + 1), excluded, numExcluded);
+			if (((field[t / height][t % height] & MINE_BIT) != 0) != dense) t = tileIndex(j, excluded, numExcluded);
+			field[t / height][t % height] ^= MINE_BIT;
+		}
+
+		// Every column only writes to itself, so they can be counted in parallel
+		if ((long) field.length * height >= PARALLEL_THRESHOLD)
+			IntStream.range(0, field.length).parallel().forEach(this::countNeighbouringMines);
+		else for (int x = 0; x < field.length; ++x) countNeighbouringMines(x);
+		zobrist = computeHash();
+	}
+
+	/**
+	 * Maps an index of the tiles outside a set to the column-major index of the tile.
+	 *
+	 * @param excluded    The ascending column-major indices of the tiles in the set.
+	 * @param numExcluded The number of indices in the array.
+	 */
+	private static int tileIndex(int i, int[] excluded, int numExcluded) {
+		for (int k = 0; k < numExcluded && excluded[k] <= i; ++k) ++i;
+		return i;
+	}
+
+	/**
+	 * Recomputes the neighbouring mine counts of a column from the mine bits.
+	 *
+	 * @param x The x-coordinate of the column.
+	 */
+	private void countNeighbouringMines(int x) {
+		if (neighbours != null) {
+			byte[] column = field[x];
+			for (int y = 0; y < column.length; ++y) {
+				int[] offsets = neighbours.get(x, y);
+				int count = 0;
+				for (int k = 0; k < offsets.length; k += 2)
+					count += field[x + offsets[k]][y + offsets[k + 1]] >> MINE_SHIFT & 1;
+				column[y] = (byte) (column[y] & ~NEIGHBOURING_MASK | count);
+			}
+			return;
+		}
+		byte[] left = field[x > 0 ? x - 1 : x], column = field[x], right = field[x < field.length - 1 ? x + 1 : x];
+		int leftWeight = x > 0 ? 1 : 0, rightWeight = x < field.length - 1 ? 1 : 0;
+		// Slide a window over the numbers of mines in the rows of the three columns
+		int previous = 0, current = (left[0] >> MINE_SHIFT & leftWeight) + (column[0] >> MINE_SHIFT & 1)
+				+ (right[0] >> MINE_SHIFT & rightWeight);
+		for (int y = 0, end = column.length - 1; y <= end; ++y) {
+			int next = y == end ? 0 : (left[y + 1] >> MINE_SHIFT & leftWeight) + (column[y + 1] >> MINE_SHIFT & 1)
+					+ (right[y + 1] >> MINE_SHIFT & rightWeight);
+			int count = previous + current + next - (column[y] >> MINE_SHIFT & 1);
+			column[y] = (byte) (column[y] & ~NEIGHBOURING_MASK | count);
+			previous = current;
+			current = next;
+		}
+	}
+
+	/**
+	 * Returns whether the mines have been placed.
+	 *
+	 * @see #deferred(int, int, int, long)
+	 */
+	public boolean isGenerated() {
+		return pendingMines == 0;
+	}
+
+	int getPendingMines() {
+		return pendingMines;
+	}
+
+	long getSeed() {
+		return seed;
+	}
+
 	public int getWidth() {
 		return field.length;
 	}
@@ -71,12 +377,48 @@ public final class Board implements Cloneable {
 		return field[0].length;
 	}
 
+	public Topology getTopology() {
+		return topology;
+	}
+
 	public int getTile(int x, int y) {
 		if (x < 0 || x >= getWidth() || y < 0 || y >= getHeight())
 			throw new IllegalArgumentException("Tile is out of bounds.");
 		return field[x][y];
 	}
 
+	/**
+	 * Returns the tile at the specified coordinates without checking bounds.
+	 */
+	int getTileUnchecked(int x, int y) {
+		return field[x][y];
+	}
+
+	/**
+	 * Sets a tile without checking bounds or updating the hash.
+	 *
+	 * @see #xorHash(long)
+	 */
+	void setTileUnchecked(int x, int y, int tile) {
+		field[x][y] = (byte) tile;
+	}
+
+	/**
+	 * Applies the combined hash changes of tiles set by concurrent writers.
+	 */
+	synchronized void xorHash(long delta) {
+		zobrist ^= delta;
+	}
+
+	/**
+	 * Takes over the count of remaining tiles kept by concurrent writers.
+	 * <p>
+	 * The count is read under the lock, so the last of concurrent calls stores the latest value.
+	 */
+	synchronized void syncRemaining(AtomicInteger count) {
+		remaining = count.get();
+	}
+
 	public int getTile(Coord c) {
 		return getTile(c.x, c.y);
 	}
@@ -91,7 +433,8 @@ public final class Board implements Cloneable {
 
 	@Override
 	public boolean equals(Object obj) {
-		return obj instanceof Board && Arrays.deepEquals(field, ((Board) obj).field);
+		return obj instanceof Board && zobrist == ((Board) obj).zobrist && topology == ((Board) obj).topology
+				&& Arrays.deepEquals(field, ((Board) obj).field);
 	}
 
 	public byte getNeighbouringMineCount(int x, int y) {
@@ -99,8 +442,289 @@ public final class Board implements Cloneable {
 	}
 
 	public void toggleFlag(int x, int y) {
-		if ((getTile(x, y) & REVEALED_BIT) == 0)
+		if ((getTile(x, y) & REVEALED_BIT) == 0) {
+			if (chunkLocks != null) lockChunk(x, y);
 			field[x][y] ^= FLAG_BIT;
+			zobrist ^= tileHash(x, y, FLAG_BIT);
+			unlockChunks();
+		}
+	}
+
+	/**
+	 * Sets the revealed and flag bits of a tile, keeping the count of remaining tiles up to date.
+	 *
+	 * @param x     The x-coordinate of the tile.
+	 * @param y     The y-coordinate of the tile.
+	 * @param state The new state, a combination of {@link #REVEALED_BIT} and {@link #FLAG_BIT}.
+	 */
+	void setState(int x, int y, int state) {
+		int tile = field[x][y];
+		if ((tile & MINE_BIT) == 0 && ((tile ^ state) & REVEALED_BIT) != 0)
+			remaining += (state & REVEALED_BIT) != 0 ? -1 : 1;
+		if (chunkLocks != null) lockChunk(x, y);
+		field[x][y] = (byte) (tile & ~(REVEALED_BIT | FLAG_BIT) | state);
+		zobrist ^= tileHash(x, y, tile ^ field[x][y]);
+		unlockChunks();
+	}
+
+	/**
+	 * Receives the columns of a region, see {@link #forEachColumn(Bounds, ColumnVisitor)}.
+	 */
+	public interface ColumnVisitor {
+		/**
+		 * @param x      The x-coordinate of the column.
+		 * @param column The tiles of the whole column, indexed by y-coordinate. Must not be modified.
+		 * @param fromY  The inclusive y-coordinate of the first tile in the region.
+		 * @param toY    The exclusive y-coordinate of the end of the region.
+		 */
+		void visit(int x, byte[] column, int fromY, int toY);
+	}
+
+	/**
+	 * Copies the tiles of a region into an array in row-major order.
+	 *
+	 * @param region The region to copy.
+	 * @param dst    The array to copy to.
+	 * @param offset The index in the array of the top-left tile.
+	 */
+	public void copyRegion(Bounds region, byte[] dst, int offset) {
+		checkRegion(region);
+		int width = region.maxX - region.minX;
+		if (offset < 0 || offset + (long) width * (region.maxY - region.minY) > dst.length)
+			throw new IllegalArgumentException("Region does not fit the array.");
+		// Transpose in strips of columns narrow enough for all of them to stay cached
+		for (int stripX = region.minX; stripX < region.maxX; stripX += TRANSPOSE_STRIP) {
+			int stripEnd = Math.min(stripX + TRANSPOSE_STRIP, region.maxX);
+			for (int y = region.minY, row = offset + stripX - region.minX; y < region.maxY; ++y, row += width)
+				for (int x = stripX, i = row; x < stripEnd; ++x, ++i)
+					dst[i] = field[x][y];
+		}
+	}
+
+	/**
+	 * Copies the tiles of a region into a buffer in row-major order.
+	 * <p>
+	 * The tiles are written starting at the position of the buffer, which is advanced past them.
+	 *
+	 * @param region The region to copy.
+	 * @param dst    The buffer to copy to.
+	 */
+	public void copyRegion(Bounds region, ByteBuffer dst) {
+		checkRegion(region);
+		int width = region.maxX - region.minX, offset = dst.position();
+		long size = (long) width * (region.maxY - region.minY);
+		if (size > dst.remaining()) throw new BufferOverflowException();
+		for (int stripX = region.minX; stripX < region.maxX; stripX += TRANSPOSE_STRIP) {
+			int stripEnd = Math.min(stripX + TRANSPOSE_STRIP, region.maxX);
+			for (int y = region.minY, row = offset + stripX - region.minX; y < region.maxY; ++y, row += width)
+				for (int x = stripX, i = row; x < stripEnd; ++x, ++i)
+					dst.put(i, field[x][y]);
+		}
+		dst.position(offset + (int) size);
+	}
+
+	/**
+	 * Sets bits of all tiles in a region, keeping the count of remaining tiles up to date.
+	 *
+	 * @param region The region to modify.
+	 * @param bits   A combination of {@link #REVEALED_BIT} and {@link #FLAG_BIT}.
+	 */
+	public void setBits(Bounds region, int bits) {
+		checkStateBits(bits);
+		checkRegion(region);
+		lockRegion(region);
+		for (int x = region.minX; x < region.maxX; ++x) {
+			byte[] column = field[x];
+			for (int y = region.minY; y < region.maxY; ++y) {
+				int tile = column[y];
+				if ((bits & REVEALED_BIT) != 0 && (tile & (MINE_BIT | REVEALED_BIT)) == 0) --remaining;
+				column[y] = (byte) (tile | bits);
+				if ((bits & ~tile) != 0) zobrist ^= tileHash(x, y, bits & ~tile);
+			}
+		}
+		unlockChunks();
+	}
+
+	/**
+	 * Clears bits of all tiles in a region, keeping the count of remaining tiles up to date.
+	 *
+	 * @param region The region to modify.
+	 * @param bits   A combination of {@link #REVEALED_BIT} and {@link #FLAG_BIT}.
+	 */
+	public void clearBits(Bounds region, int bits) {
+		checkStateBits(bits);
+		checkRegion(region);
+		lockRegion(region);
+		for (int x = region.minX; x < region.maxX; ++x) {
+			byte[] column = field[x];
+			for (int y = region.minY; y < region.maxY; ++y) {
+				int tile = column[y];
+				if ((bits & REVEALED_BIT) != 0 && (tile & (MINE_BIT | REVEALED_BIT)) == REVEALED_BIT) ++remaining;
+				column[y] = (byte) (tile & ~bits);
+				if ((bits & tile) != 0) zobrist ^= tileHash(x, y, bits & tile);
+			}
+		}
+		unlockChunks();
+	}
+
+	/**
+	 * Visits the columns of a region from left to right.
+	 * <p>
+	 * The tiles are stored in columns, so this hands out slices of the
+	 * underlying storage without copying.
+	 *
+	 * @param region  The region to visit.
+	 * @param visitor The visitor to call once for every column.
+	 */
+	public void forEachColumn(Bounds region, ColumnVisitor visitor) {
+		checkRegion(region);
+		for (int x = region.minX; x < region.maxX; ++x) visitor.visit(x, field[x], region.minY, region.maxY);
+	}
+
+	/**
+	 * Enables {@link #readRegion(Bounds, byte[], int)} for threads other than the one mutating the board.
+	 * <p>
+	 * The board is divided into square chunks, each with a {@link StampedLock}.
+	 * A mutation write-locks the chunks it touches as it goes and unlocks them
+	 * when done. Flood fills also unlock after every row, so readers may
+	 * observe a large reveal in progress, as with the {@link RevealListener}.
+	 * Readers never lock chunks while copying; they validate the versions of
+	 * the chunks they copied afterwards and only copy the modified chunks
+	 * again. Must be called before the board is shared with the readers.
+	 */
+	public void enableOptimisticReads() {
+		if (chunkLocks != null) return;
+		chunksPerColumn = (getHeight() + CHUNK_SIZE - 1) >> CHUNK_SHIFT;
+		int numChunks = ((getWidth() + CHUNK_SIZE - 1) >> CHUNK_SHIFT) * chunksPerColumn;
+		chunkLocks = new StampedLock[numChunks];
+		for (int i = 0; i < numChunks; ++i) chunkLocks[i] = new StampedLock();
+		writeStamps = new long[numChunks];
+		lockedChunks = new int[numChunks];
+	}
+
+	/**
+	 * Copies a consistent snapshot of a region into an array in row-major order.
+	 * <p>
+	 * May be called from any thread concurrently with a single thread mutating
+	 * the board. Only waits for the writer if it keeps modifying the chunks
+	 * being read.
+	 *
+	 * @param region The region to copy.
+	 * @param dst    The array to copy to.
+	 * @param offset The index in the array of the top-left tile.
+	 * @throws IllegalStateException If optimistic reads have not been enabled.
+	 * @see #enableOptimisticReads()
+	 */
+	public void readRegion(Bounds region, byte[] dst, int offset) {
+		if (chunkLocks == null) throw new IllegalStateException("Optimistic reads are not enabled.");
+		checkRegion(region);
+		int width = region.maxX - region.minX;
+		if (offset < 0 || offset + (long) width * (region.maxY - region.minY) > dst.length)
+			throw new IllegalArgumentException("Region does not fit the array.");
+		if (region.minX == region.maxX || region.minY == region.maxY) return;
+
+		int minChunkX = region.minX >> CHUNK_SHIFT, minChunkY = region.minY >> CHUNK_SHIFT,
+				chunksX = ((region.maxX - 1) >> CHUNK_SHIFT) - minChunkX + 1,
+				chunksY = ((region.maxY - 1) >> CHUNK_SHIFT) - minChunkY + 1;
+		// Stamps of the copied chunks, or zero if a chunk still has to be copied
+		long[] stamps = new long[chunksX * chunksY];
+		for (int attempt = 0; ; ++attempt) {
+			for (int i = 0; i < stamps.length; ++i) {
+				if (stamps[i] != 0) continue;
+				int chunkX = minChunkX + i / chunksY, chunkY = minChunkY + i % chunksY;
+				StampedLock lock = chunkLocks[chunkX * chunksPerColumn + chunkY];
+				if (attempt >= MAX_OPTIMISTIC_ATTEMPTS) {
+					// Wait for the writer to leave the chunk instead of spinning
+					lock.unlockRead(lock.readLock());
+				}
+				if ((stamps[i] = lock.tryOptimisticRead()) == 0) continue;
+
+				int fromX = Math.max(region.minX, chunkX << CHUNK_SHIFT),
+						toX = Math.min(region.maxX, (chunkX + 1) << CHUNK_SHIFT),
+						fromY = Math.max(region.minY, chunkY << CHUNK_SHIFT),
+						toY = Math.min(region.maxY, (chunkY + 1) << CHUNK_SHIFT);
+				for (int y = fromY, row = offset + (fromY - region.minY) * width - region.minX; y < toY; ++y, row += width)
+					for (int x = fromX; x < toX; ++x) dst[row + x] = field[x][y];
+			}
+
+			// All copies precede all validations, so the chunks that validate were unchanged at a common instant
+			boolean consistent = true;
+			for (int i = 0; i < stamps.length; ++i) {
+				if (stamps[i] == 0) consistent = false;
+				else if (!chunkLocks[(minChunkX + i / chunksY) * chunksPerColumn + minChunkY + i % chunksY].validate(stamps[i])) {
+					stamps[i] = 0;
+					consistent = false;
+				}
+			}
+			if (consistent) return;
+		}
+	}
+
+	/**
+	 * Returns the lock of the chunk containing a tile.
+	 *
+	 * @see #enableOptimisticReads()
+	 */
+	StampedLock getChunkLock(int x, int y) {
+		return chunkLocks[(x >> CHUNK_SHIFT) * chunksPerColumn + (y >> CHUNK_SHIFT)];
+	}
+
+	/**
+	 * Write-locks the chunk of a tile for the current mutation, unless it already is.
+	 */
+	private void lockChunk(int x, int y) {
+		int i = (x >> CHUNK_SHIFT) * chunksPerColumn + (y >> CHUNK_SHIFT);
+		if (writeStamps[i] == 0) {
+			writeStamps[i] = chunkLocks[i].writeLock();
+			lockedChunks[numLockedChunks++] = i;
+		}
+	}
+
+	private void lockRegion(Bounds region) {
+		lockRegion(region.minX, region.minY, region.maxX, region.maxY);
+	}
+
+	private void lockRegion(int minX, int minY, int maxX, int maxY) {
+		if (chunkLocks == null || minX == maxX || minY == maxY) return;
+		for (int x = minX >> CHUNK_SHIFT, endX = (maxX - 1) >> CHUNK_SHIFT; x <= endX; ++x)
+			for (int y = minY >> CHUNK_SHIFT, endY = (maxY - 1) >> CHUNK_SHIFT; y <= endY; ++y)
+				lockChunk(x << CHUNK_SHIFT, y << CHUNK_SHIFT);
+	}
+
+	/**
+	 * Unlocks all chunks locked by the current mutation, publishing its writes to readers.
+	 */
+	private void unlockChunks() {
+		for (int j = 0; j < numLockedChunks; ++j) {
+			int i = lockedChunks[j];
+			chunkLocks[i].unlockWrite(writeStamps[i]);
+			writeStamps[i] = 0;
+		}
+		numLockedChunks = 0;
+	}
+
+	/**
+	 * Reveals a hidden tile that is not a mine.
+	 */
+	private void reveal(int x, int y) {
+		if (chunkLocks != null) lockChunk(x, y);
+		field[x][y] |= REVEALED_BIT;
+		zobrist ^= tileHash(x, y, REVEALED_BIT);
+		--remaining;
+	}
+
+	/**
+	 * Throws an {@link IllegalArgumentException} unless the region is within the board.
+	 */
+	void checkRegion(Bounds region) {
+		if (region.minX < 0 || region.minY < 0 || region.maxX > getWidth() || region.maxY > getHeight()
+				|| region.minX > region.maxX || region.minY > region.maxY)
+			throw new IllegalArgumentException("Region is out of bounds.");
+	}
+
+	private static void checkStateBits(int bits) {
+		if ((bits & ~(REVEALED_BIT | FLAG_BIT)) != 0)
+			throw new IllegalArgumentException("Only the revealed and flag bits may be set.");
 	}
 
 	public boolean isOutOfBounds(Coord c) {
@@ -115,6 +739,10 @@ public final class Board implements Cloneable {
 	 * @return A stream of the coordinates of the neighbouring tiles.
 	 */
 	public Stream<Coord> getNeighbouringTiles(int x, int y) {
+		if (neighbours != null) {
+			int[] offsets = neighbours.get(x, y);
+			return IntStream.range(0, offsets.length / 2).mapToObj(k -> new Coord(x + offsets[2 * k], y + offsets[2 * k + 1]));
+		}
 		return IntStream.rangeClosed(x > 0 ? x - 1 : x, x < getWidth() - 1 ? x + 1 : x)
 				.mapToObj(cx -> IntStream.rangeClosed(y > 0 ? y - 1 : y, y < getHeight() - 1 ? y + 1 : y)
 						.filter(cy -> cx != x || cy != y)
@@ -122,9 +750,103 @@ public final class Board implements Cloneable {
 				.flatMap(Function.identity());
 	}
 
+	/**
+	 * Receives tiles, see {@link #forEachNeighbour(int, int, TileVisitor)}.
+	 */
+	public interface TileVisitor {
+		void visit(int x, int y);
+	}
+
+	/**
+	 * Visits the neighbours of a tile.
+	 * <p>
+	 * Unlike {@link #getNeighbouringTiles(int, int)} this allocates nothing, so
+	 * is suited to hot loops when the visitor is created up front.
+	 *
+	 * @param x       The x-coordinate of the tile.
+	 * @param y       The y-coordinate of the tile.
+	 * @param visitor The visitor to call once for every neighbour.
+	 */
+	public void forEachNeighbour(int x, int y, TileVisitor visitor) {
+		if (neighbours != null) {
+			int[] offsets = neighbours.get(x, y);
+			for (int k = 0; k < offsets.length; k += 2) visitor.visit(x + offsets[k], y + offsets[k + 1]);
+			return;
+		}
+		for (int nx = Math.max(x - 1, 0), endX = Math.min(x + 1, getWidth() - 1); nx <= endX; ++nx)
+			for (int ny = Math.max(y - 1, 0), endY = Math.min(y + 1, getHeight() - 1); ny <= endY; ++ny)
+				if (nx != x || ny != y) visitor.visit(nx, ny);
+	}
+
+	/**
+	 * Counts the neighbours of a tile that have any of the specified bits set.
+	 *
+	 * @param x    The x-coordinate of the tile.
+	 * @param y    The y-coordinate of the tile.
+	 * @param bits The bits to test, e.g. {@link #FLAG_BIT}.
+	 * @return The number of matching neighbours.
+	 */
+	public int countNeighbours(int x, int y, int bits) {
+		int count = 0;
+		if (neighbours != null) {
+			int[] offsets = neighbours.get(x, y);
+			for (int k = 0; k < offsets.length; k += 2)
+				if ((field[x + offsets[k]][y + offsets[k + 1]] & bits) != 0) ++count;
+			return count;
+		}
+		for (int nx = Math.max(x - 1, 0), endX = Math.min(x + 1, getWidth() - 1); nx <= endX; ++nx)
+			for (int ny = Math.max(y - 1, 0), endY = Math.min(y + 1, getHeight() - 1); ny <= endY; ++ny)
+				if ((nx != x || ny != y) && (field[nx][ny] & bits) != 0) ++count;
+		return count;
+	}
+
 	@Override
 	public int hashCode() {
-		return 31 * Objects.hash(remaining) + Arrays.hashCode(field);
+		return (int) (zobrist ^ zobrist >>> 32);
+	}
+
+	/**
+	 * Returns a 64-bit hash of the tiles, consistent with {@link #equals(Object)}.
+	 * <p>
+	 * The hash is the XOR of a pseudorandom key for every set mine, revealed and
+	 * flag bit of every tile. It is updated along with every change, so it is
+	 * available in constant time, e.g. as the key of transposition caches.
+	 */
+	public long longHashCode() {
+		return zobrist;
+	}
+
+	/**
+	 * Recomputes the hash after the field was written to directly, as by {@link FastBoardBuilder}.
+	 */
+	void rehash() {
+		zobrist = computeHash();
+	}
+
+	/**
+	 * Computes the hash of the tiles from scratch.
+	 */
+	long computeHash() {
+		long h = 0;
+		for (int x = 0; x < field.length; ++x)
+			for (int y = 0; y < field[x].length; ++y)
+				if ((field[x][y] & HASHED_BITS) != 0) h ^= tileHash(x, y, field[x][y]);
+		return h;
+	}
+
+	/**
+	 * Returns the XOR of the keys of the specified bits of a tile.
+	 */
+	long tileHash(int x, int y, int bits) {
+		long h = 0, index = ((long) x * field[0].length + y) << 2;
+		for (bits &= HASHED_BITS; bits != 0; bits &= bits - 1) {
+			// The finalizer of SplitMix64
+			long z = ((index | Integer.numberOfTrailingZeros(bits) - MINE_SHIFT) + 1) * 0x9E3779B97F4A7C15L;
+			z = (z ^ z >>> 30) * 0xbf58476d1ce4e5b9L;
+			z = (z ^ z >>> 27) * 0x94d049bb133111ebL;
+			h ^= z ^ z >>> 31;
+		}
+		return h;
 	}
 
 	@Override
@@ -170,6 +892,16 @@ public final class Board implements Cloneable {
 					Math.max(a.maxX, b.maxX), Math.max(a.maxY, b.maxY));
 		}
 
+		/**
+		 * Extends these bounds in place to also cover a region.
+		 */
+		void include(int minX, int minY, int maxX, int maxY) {
+			if (minX < this.minX) this.minX = minX;
+			if (minY < this.minY) this.minY = minY;
+			if (maxX > this.maxX) this.maxX = maxX;
+			if (maxY > this.maxY) this.maxY = maxY;
+		}
+
 		@Override
 		public String toString() {
 			return "Bounds{minX=" + minX + ", minY=" + minY + ", maxX=" + maxX + ", maxY=" + maxY + '}';
@@ -189,6 +921,27 @@ public final class Board implements Cloneable {
 		}
 	}
 
+	/**
+	 * Receives the progress of large reveals.
+	 */
+	public interface RevealListener {
+		/**
+		 * Called while a flood fill is in progress, after tiles in the region were revealed.
+		 * <p>
+		 * Not every region touched is reported; the final region is {@link ClearTileResult#dirtyRegion}.
+		 */
+		void revealed(int minX, int minY, int maxX, int maxY);
+	}
+
+	/**
+	 * Sets the listener to notify of partial progress during {@link #clearTiles(Coord...)}.
+	 *
+	 * @param listener The listener, or {@code null}.
+	 */
+	public void setRevealListener(RevealListener listener) {
+		revealListener = listener;
+	}
+
 	public static final class ClearTileResult {
 		/**
 		 * The tile region that needs to be redrawn.
@@ -197,25 +950,25 @@ public final class Board implements Cloneable {
 		/**
 		 * Whether a mine was detonated by the clear.
 		 */
-		public final boolean wasMine;
+		public boolean wasMine;
 
-		private ClearTileResult(Bounds dirtyRegion, boolean wasMine) {
+		ClearTileResult(Bounds dirtyRegion, boolean wasMine) {
 			this.dirtyRegion = dirtyRegion;
 			this.wasMine = wasMine;
 		}
 	}
 
 	/**
-	 * Scans for the top-left corner of the continuous region of plain squares.
+	 * Scans for the top-left corner of the continuous region of plain squares and flood fills from there.
 	 * <p>
 	 * Assumes that the specified square is empty.
 	 *
 	 * @param x The starting x-coordinate.
 	 * @param y The starting y-coordinate.
-	 * @return The coordinate of the top-left corner.
+	 * @param b The bounds of the dirty area, extended by the fill.
 	 */
-	private Coord scanTopLeftCorner(int x, int y) {
-		assert getTile(x, y) == 0 : "The specified square must be empty.";
+	private void fillFromTopLeftCorner(int x, int y, Bounds b) {
+		assert (getTile(x, y) & ~FLAG_BIT) == 0 : "The specified square must be empty.";
 		for (; ; ) {
 			if (y > 0 && x > 0 && (field[x - 1][y - 1] & ~FLAG_BIT) == 0) {
 				--x;
@@ -224,7 +977,7 @@ public final class Board implements Cloneable {
 			else if (y > 0 && (field[x][y - 1] & ~FLAG_BIT) == 0) --y;
 			else break;
 		}
-		return new Coord(x, y);
+		floodFill(x, y, b);
 	}
 
 	/**
@@ -232,41 +985,38 @@ public final class Board implements Cloneable {
 	 * <p>
 	 * The following invariants must be upheld:
 	 * <ul>
-	 * <li>The starting coordinate c must be an empty square.
-	 * <li>And c should effectively be a top-left corner.
+	 * <li>The starting coordinate must be an empty square.
+	 * <li>And it should effectively be a top-left corner.
 	 * <li>All empty squares that should be touched are not already revealed.
 	 * </ul>
+	 * All fills of a clear share the bounds, so nested fills allocate nothing.
 	 *
-	 * @param c The starting coordinate.
-	 * @return The bounds of the dirty area.
+	 * @param x The starting x-coordinate.
+	 * @param y The starting y-coordinate.
+	 * @param b The bounds of the dirty area, extended by the fill.
 	 */
-	private Bounds floodFill(Coord c) {
-		assert !isOutOfBounds(c) : "The specified coordinate is out of bounds";
-		assert getTile(c) == 0 : "The square is not empty.";
-		int x = c.x, y = c.y;
-		Bounds b = new Bounds(c);
+	private void floodFill(int x, int y, Bounds b) {
+		assert (getTile(x, y) & ~FLAG_BIT) == 0 : "The square is not empty.";
+		b.include(x, y, x + 1, y + 1);
 
 		if (x > 0 && (field[x - 1][y] & REVEALED_BIT) == 0) {
-			field[x - 1][y] |= REVEALED_BIT; // Left of top row
-			--remaining;
-			--b.minX;
+			reveal(x - 1, y); // Left of top row
+			b.minX = Math.min(b.minX, x - 1);
 		}
 		if (y > 0) {
 			if ((field[x][y - 1] & REVEALED_BIT) == 0) {
-				field[x][y - 1] |= REVEALED_BIT; // Above start of first row
-				--remaining;
+				reveal(x, y - 1); // Above start of first row
 			}
 			if (x > 0 && (field[x - 1][y - 1] & REVEALED_BIT) == 0) {
-				field[x - 1][y - 1] |= REVEALED_BIT; // Top-left corner
-				--remaining;
+				reveal(x - 1, y - 1); // Top-left corner
 			}
-			--b.minY;
+			b.minY = Math.min(b.minY, y - 1);
 		}
 
 		int prx = x; // Previous x-coordinate of rightmost empty square
 		rowLoop:
 		do {
-			int rx = x;
+			int rx = x, startX = x;
 			if (/* Was row above */ x != prx) {
 				// See if left edge of this row moved relative to the previous row
 				if ((field[x][y] & ~FLAG_BIT) != 0) {
@@ -274,8 +1024,7 @@ public final class Board implements Cloneable {
 					// | **| This row starts more to the right than the last
 					do {
 						if ((field[x][y] & REVEALED_BIT) == 0) {
-							field[x][y] |= REVEALED_BIT;
-							--remaining;
+							reveal(x, y);
 						}
 						if (x >= prx) break rowLoop; // Scanned whole bottom of previous row
 					} while (x + 1 < getWidth() && (field[++x][y] & ~FLAG_BIT) != 0);
@@ -285,15 +1034,13 @@ public final class Board implements Cloneable {
 					// |*X*| This row extends further to the left than the last
 					for (; x > 0; ) {
 						if ((field[--x][y] & REVEALED_BIT) == 0) {
-							field[x][y] |= REVEALED_BIT;
-							--remaining;
+							reveal(x, y);
 						}
 						// If extends above to the left (valid since row existed above)
 						if ((field[x][y - 1] & ~FLAG_BIT) == 0)
-							b = Bounds.combine(b, floodFill(scanTopLeftCorner(x, y - 1)));
+							fillFromTopLeftCorner(x, y - 1, b);
 						else if ((field[x][y - 1] & REVEALED_BIT) == 0) {
-							field[x][y - 1] |= REVEALED_BIT;
-							--remaining;
+							reveal(x, y - 1);
 						}
 						if ((field[x][y] & ~(REVEALED_BIT | FLAG_BIT)) != 0) break;
 					}
@@ -305,8 +1052,7 @@ public final class Board implements Cloneable {
 			// Scan across to the right (include the non-emty square to the right of the row)
 			for (; ; ++rx) {
 				if ((field[rx][y] & REVEALED_BIT) == 0) {
-					field[rx][y] |= REVEALED_BIT;
-					--remaining;
+					reveal(rx, y);
 				}
 				if ((field[rx][y] & ~(REVEALED_BIT | FLAG_BIT)) != 0 || rx + 1 >= getWidth()) break;
 			}
@@ -316,10 +1062,9 @@ public final class Board implements Cloneable {
 				// |*** |
 				// |*X *| This row is shorter than last; might reach further right
 				for (int end = Math.min(prx, getWidth() - 1), sx = rx; ++sx <= end; ) {
-					if ((field[sx][y] & ~FLAG_BIT) == 0) b = Bounds.combine(b, floodFill(new Coord(sx, y)));
+					if ((field[sx][y] & ~FLAG_BIT) == 0) floodFill(sx, y, b);
 					else if ((field[sx][y] & REVEALED_BIT) == 0) {
-						field[sx][y] |= REVEALED_BIT;
-						--remaining;
+						reveal(sx, y);
 					}
 				}
 			} else if (rx > prx && y > 0) {
@@ -327,21 +1072,29 @@ public final class Board implements Cloneable {
 				// |***X| If this row is longer than the last; could extend upwards to the right
 				for (int ux = prx + 1; ux <= rx; ++ux) {
 					if ((field[ux][y - 1] & ~FLAG_BIT) == 0)
-						b = Bounds.combine(b, floodFill(scanTopLeftCorner(ux, y - 1)));
+						fillFromTopLeftCorner(ux, y - 1, b);
 					else if ((field[ux][y - 1] & REVEALED_BIT) == 0) {
-						field[ux][y - 1] |= REVEALED_BIT;
-						--remaining;
+						reveal(ux, y - 1);
 					}
 				}
 			}
 
 			if (x < b.minX) b.minX = x;
 			if (rx >= b.maxX) b.maxX = rx + 1;
+			// Readers only ever wait for a single row of a large reveal
+			publishReveal(Math.min(startX, x), y > 0 ? y - 1 : y, Math.max(rx, prx) + 1, y + 1);
 			prx = rx;
 		} while (++y < getHeight());
 
 		if (y >= b.maxY) b.maxY = Math.min(y + 1, getHeight());
-		return b;
+	}
+
+	/**
+	 * Publishes the part of a fill in progress that was revealed since the last call.
+	 */
+	private void publishReveal(int minX, int minY, int maxX, int maxY) {
+		if (numLockedChunks > 0) unlockChunks();
+		if (revealListener != null) revealListener.revealed(minX, minY, maxX, maxY);
 	}
 
 	/**
@@ -350,28 +1103,188 @@ public final class Board implements Cloneable {
 	 * Mutates this {@link Board} in-place.
 	 * Even if a mine was stumbled upon the flood fill will still complete.
 	 * Any flags on squares that get revealed should be considered removed.
+	 * On a {@link #deferred(int, int, int, long) deferred} board the first clear places the mines.
 	 *
 	 * @param coords The coordinates of the squares to clear.
 	 * @return The result of the operation.
 	 */
 	public ClearTileResult clearTiles(Coord... coords) {
-		boolean wasMine = Arrays.stream(coords).anyMatch(c -> (getTile(c) & (FLAG_BIT | MINE_BIT)) == MINE_BIT);
-		Bounds bounds = Arrays.stream(coords)
-				.peek(c -> {
-					if (isOutOfBounds(c))
-						throw new IllegalArgumentException("Specified coordinate is out of bounds.");
-				})
-				.filter(c -> (getTile(c) & (REVEALED_BIT | FLAG_BIT)) == 0)
-				.map(c -> {
-					if (getTile(c) != 0) {
-						field[c.x][c.y] |= REVEALED_BIT;
-						if ((getTile(c) & MINE_BIT) == 0) --remaining;
-						return new Bounds(c);
-					} else
-						return floodFill(scanTopLeftCorner(c.x, c.y)); // If empty: recursively clear adjacent squares
-				})
-				.reduce(Bounds::combine).orElse(Bounds.ZERO_SIZE);
-
-		return new ClearTileResult(bounds, wasMine);
+		for (Coord c : coords)
+			if (isOutOfBounds(c)) throw new IllegalArgumentException("Specified coordinate is out of bounds.");
+		try {
+			if (pendingMines != 0 && coords.length > 0) placeMines(coords[0].x, coords[0].y);
+			boolean wasMine = false;
+			for (Coord c : coords) wasMine |= (field[c.x][c.y] & (FLAG_BIT | MINE_BIT)) == MINE_BIT;
+			Bounds bounds = emptyBounds();
+			for (Coord c : coords) clearTile(c.x, c.y, bounds);
+			return new ClearTileResult(bounds.maxX < 0 ? Bounds.ZERO_SIZE : bounds, wasMine);
+		} finally {
+			unlockChunks();
+		}
+	}
+
+	/**
+	 * Clears a tile without allocating.
+	 * <p>
+	 * Equivalent to {@link #clearTiles(Coord...)} with a single coordinate, but
+	 * the result is reused by the next call of this method or
+	 * {@link #clearNeighbours(int, int)} on this board, so it must be read before then.
+	 *
+	 * @param x The x-coordinate of the tile.
+	 * @param y The y-coordinate of the tile.
+	 * @return The result of the operation.
+	 */
+	public ClearTileResult clearTile(int x, int y) {
+		if (x < 0 || x >= getWidth() || y < 0 || y >= getHeight())
+			throw new IllegalArgumentException("Specified coordinate is out of bounds.");
+		try {
+			if (pendingMines != 0) placeMines(x, y);
+			ClearTileResult result = resetResult();
+			result.wasMine = (field[x][y] & (FLAG_BIT | MINE_BIT)) == MINE_BIT;
+			clearTile(x, y, result.dirtyRegion);
+			return finishResult(result);
+		} finally {
+			unlockChunks();
+		}
+	}
+
+	/**
+	 * Clears the neighbours of a tile, as when chording on a revealed number.
+	 * <p>
+	 * Equivalent to {@link #clearTiles(Coord...)} with the {@link #getNeighbouringTiles(int, int) neighbours},
+	 * but allocates nothing and reuses its result like {@link #clearTile(int, int)}.
+	 *
+	 * @param x The x-coordinate of the tile.
+	 * @param y The y-coordinate of the tile.
+	 * @return The result of the operation.
+	 */
+	public ClearTileResult clearNeighbours(int x, int y) {
+		if (x < 0 || x >= getWidth() || y < 0 || y >= getHeight())
+			throw new IllegalArgumentException("Specified coordinate is out of bounds.");
+		int minX = Math.max(x - 1, 0), maxX = Math.min(x + 1, getWidth() - 1),
+				minY = Math.max(y - 1, 0), maxY = Math.min(y + 1, getHeight() - 1);
+		try {
+			if (pendingMines != 0) placeMines(x, y);
+			ClearTileResult result = resetResult();
+			Bounds bounds = result.dirtyRegion;
+			boolean wasMine = false;
+			if (neighbours != null) {
+				int[] offsets = neighbours.get(x, y);
+				for (int k = 0; k < offsets.length; k += 2)
+					wasMine |= (field[x + offsets[k]][y + offsets[k + 1]] & (FLAG_BIT | MINE_BIT)) == MINE_BIT;
+				for (int k = 0; k < offsets.length; k += 2) clearTile(x + offsets[k], y + offsets[k + 1], bounds);
+			} else {
+				for (int nx = minX; nx <= maxX; ++nx)
+					for (int ny = minY; ny <= maxY; ++ny)
+						if (nx != x || ny != y) wasMine |= (field[nx][ny] & (FLAG_BIT | MINE_BIT)) == MINE_BIT;
+				for (int nx = minX; nx <= maxX; ++nx)
+					for (int ny = minY; ny <= maxY; ++ny)
+						if (nx != x || ny != y) clearTile(nx, ny, bounds);
+			}
+			result.wasMine = wasMine;
+			return finishResult(result);
+		} finally {
+			unlockChunks();
+		}
+	}
+
+	/**
+	 * Returns the reused result of the single-tile operations for a tile, as for toggling its flag.
+	 */
+	ClearTileResult tileResult(int x, int y) {
+		ClearTileResult result = resetResult();
+		result.dirtyRegion.include(x, y, x + 1, y + 1);
+		return result;
+	}
+
+	/**
+	 * Returns the reused result with empty bounds.
+	 */
+	private ClearTileResult resetResult() {
+		if (result == null) result = new ClearTileResult(emptyBounds(), false);
+		Bounds b = result.dirtyRegion;
+		b.minX = b.minY = Integer.MAX_VALUE;
+		b.maxX = b.maxY = Integer.MIN_VALUE;
+		result.wasMine = false;
+		return result;
+	}
+
+	/**
+	 * Replaces bounds that cover nothing by the zero-size bounds.
+	 */
+	private static ClearTileResult finishResult(ClearTileResult result) {
+		Bounds b = result.dirtyRegion;
+		if (b.maxX < 0) b.minX = b.minY = b.maxX = b.maxY = 0;
+		return result;
+	}
+
+	private static Bounds emptyBounds() {
+		return new Bounds(Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE, Integer.MIN_VALUE);
+	}
+
+	/**
+	 * Clears a single tile unless it is revealed or flagged.
+	 *
+	 * @param b The bounds of the dirty area, extended by the clear.
+	 */
+	private void clearTile(int x, int y, Bounds b) {
+		int tile = field[x][y];
+		if ((tile & (REVEALED_BIT | FLAG_BIT)) != 0) return;
+		if (tile != 0) {
+			if (chunkLocks != null) lockChunk(x, y);
+			field[x][y] |= REVEALED_BIT;
+			zobrist ^= tileHash(x, y, REVEALED_BIT);
+			if ((tile & MINE_BIT) == 0) --remaining;
+			b.include(x, y, x + 1, y + 1);
+		} else if (neighbours == null) fillFromTopLeftCorner(x, y, b); // If empty: recursively clear adjacent squares
+		else fillNeighbours(x, y, b);
+	}
+
+	/**
+	 * Reveals the continuous region of plain squares containing a tile and its border, for any topology.
+	 * <p>
+	 * A depth-first traversal over the neighbour table, on a stack reused by later fills.
+	 * The tiles are published to readers and the reveal listener whenever about a
+	 * row's worth has been revealed, as the scanline fill does per row.
+	 *
+	 * @param x The x-coordinate of an empty square.
+	 * @param y The y-coordinate of an empty square.
+	 * @param b The bounds of the dirty area, extended by the fill.
+	 */
+	private void fillNeighbours(int x, int y, Bounds b) {
+		if (fillStack == null) fillStack = new int[64];
+		int[] stack = fillStack;
+		int size = 0;
+		reveal(x, y);
+		stack[size++] = x;
+		stack[size++] = y;
+		// The tiles revealed since they were last published
+		int revealed = 1, minX = x, minY = y, maxX = x + 1, maxY = y + 1;
+		while (size > 0) {
+			int cy = stack[--size], cx = stack[--size];
+			b.include(cx, cy, cx + 1, cy + 1);
+			if ((field[cx][cy] & ~(REVEALED_BIT | FLAG_BIT)) == 0) {
+				int[] offsets = neighbours.get(cx, cy);
+				for (int k = 0; k < offsets.length; k += 2) {
+					int nx = cx + offsets[k], ny = cy + offsets[k + 1];
+					if ((field[nx][ny] & REVEALED_BIT) != 0) continue;
+					reveal(nx, ny);
+					++revealed;
+					if (nx < minX) minX = nx;
+					if (ny < minY) minY = ny;
+					if (nx >= maxX) maxX = nx + 1;
+					if (ny >= maxY) maxY = ny + 1;
+					if (size + 2 > stack.length) fillStack = stack = Arrays.copyOf(stack, 2 * stack.length);
+					stack[size++] = nx;
+					stack[size++] = ny;
+				}
+			}
+			if (revealed >= getWidth() || size == 0 && revealed > 0) {
+				publishReveal(minX, minY, maxX, maxY);
+				revealed = 0;
+				minX = minY = Integer.MAX_VALUE;
+				maxX = maxY = Integer.MIN_VALUE;
+			}
+		}
 	}
 }
@@ -0,0 +1,125 @@
+package minesweeper;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Compact binary encoding of the changes to a region of a board.
+ * <p>
+ * Only the player-visible state is transmitted; the receiving side is expected
+ * to hold a replica generated from the same seed. For a deferred board the
+ * replica has to place its mines by performing the first clear itself. The
+ * sender compares the board against its own copy of the replica, so only the
+ * bits that changed are sent. A delta consists of the varint-coded region
+ * followed by the revealed and the flag bit planes of the region. Each plane is
+ * a sequence of runs in column-major order, each a varlong
+ * {@code length << 2 | kind}, where the kind is {@code 0} for bits that are
+ * unchanged, {@code 2} for bits that were cleared and {@code 3} for bits that
+ * were set.
+ * <p>
+ * Applying a delta sets the changed bits to their new value, so applying the
+ * same delta twice is harmless.
+ * <p>
+ * The sender needs a full replica {@link Board} for the state it last sent,
+ * one byte per tile on top of the board itself. Receivers that are sent the
+ * same deltas can share a replica, so a server broadcasting to spectators of a
+ * game needs one replica per game rather than per receiver.
+ */
+public final class BoardDelta {
+	private static final int UNCHANGED = 0, CHANGED = 2;
+
+	private BoardDelta() {}
+
+	/**
+	 * Returns an upper bound for the size of an encoded region.
+	 * <p>
+	 * Every run covers at least one tile and its varint takes at most
+	 * {@code 1 + (4 * length + 3) / 128} bytes, so a plane of {@code n} tiles
+	 * takes at most {@code n + 7 * n / 128} bytes.
+	 */
+	public static int maxEncodedSize(Board.Bounds region) {
+		long tiles = (long) (region.maxX - region.minX) * (region.maxY - region.minY);
+		return (int) Math.min(Integer.MAX_VALUE, 4 * Varint.MAX_INT_BYTES + 2 * (tiles + (7 * tiles + 127) / 128));
+	}
+
+	/**
+	 * Encodes the changes to a region.
+	 * <p>
+	 * The replica is not modified. The sender keeps it in step with the
+	 * receiver by applying the delta to it as well. Every distinct receiver state
+	 * costs a replica the size of the board, see the class documentation.
+	 *
+	 * @param board   The board to read from.
+	 * @param replica The state the receiver holds, a board of the same size whose tiles outside the region are ignored.
+	 * @param region  The region that changed, typically {@link Board.ClearTileResult#dirtyRegion}.
+	 * @param out     The buffer to write to.
+	 */
+	public static void encode(Board board, Board replica, Board.Bounds region, ByteBuffer out) {
+		board.checkRegion(region);
+		replica.checkRegion(region);
+		Varint.putInt(out, region.minX);
+		Varint.putInt(out, region.minY);
+		Varint.putInt(out, region.maxX - region.minX);
+		Varint.putInt(out, region.maxY - region.minY);
+		encodePlane(board, replica, region, Board.REVEALED_BIT, out);
+		encodePlane(board, replica, region, Board.FLAG_BIT, out);
+	}
+
+	private static void encodePlane(Board board, Board replica, Board.Bounds region, int bit, ByteBuffer out) {
+		int run = 0, kind = UNCHANGED;
+		for (int x = region.minX; x < region.maxX; ++x)
+			for (int y = region.minY; y < region.maxY; ++y) {
+				int value = board.getTileUnchecked(x, y) & bit;
+				int k = value == (replica.getTileUnchecked(x, y) & bit) ? UNCHANGED : CHANGED | (value != 0 ? 1 : 0);
+				if (k != kind && run > 0) {
+					Varint.putLong(out, (long) run << 2 | kind);
+					run = 0;
+				}
+				kind = k;
+				++run;
+			}
+		if (run > 0) Varint.putLong(out, (long) run << 2 | kind);
+	}
+
+	/**
+	 * Applies an encoded delta to a replica board.
+	 *
+	 * @param board The replica to mutate.
+	 * @param in    The buffer to read the delta from.
+	 * @return The region that was updated.
+	 */
+	public static Board.Bounds apply(Board board, ByteBuffer in) {
+		int minX = Varint.getInt(in), minY = Varint.getInt(in);
+		Board.Bounds region = new Board.Bounds(minX, minY, minX + Varint.getInt(in), minY + Varint.getInt(in));
+		board.checkRegion(region);
+		decodePlane(board, region, Board.REVEALED_BIT, in);
+		decodePlane(board, region, Board.FLAG_BIT, in);
+		return region;
+	}
+
+	private static void decodePlane(Board board, Board.Bounds region, int bit, ByteBuffer in) {
+		int height = region.maxY - region.minY;
+		long remaining = (long) (region.maxX - region.minX) * height;
+		int x = region.minX, y = region.minY;
+		while (remaining > 0) {
+			long code = Varint.getLong(in), run = code >>> 2;
+			int kind = (int) code & 3;
+			if (run == 0 || run > remaining || kind == 1) throw new IllegalArgumentException("Corrupt run.");
+			remaining -= run;
+			if (kind == UNCHANGED) {
+				long offset = y - region.minY + run;
+				x += (int) (offset / height);
+				y = region.minY + (int) (offset % height);
+				continue;
+			}
+			int value = (kind & 1) != 0 ? bit : 0;
+			for (; run > 0; --run) {
+				int tile = board.getTileUnchecked(x, y);
+				board.setState(x, y, tile & (Board.REVEALED_BIT | Board.FLAG_BIT) & ~bit | value);
+				if (++y == region.maxY) {
+					y = region.minY;
+					++x;
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,163 @@
+package minesweeper;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Streaming compressed serialization of boards.
+ * <p>
+ * The board is written as a header followed by bands of whole columns. Every
+ * band holds the mine, revealed and flag bit planes of its tiles, each
+ * run-length coded in column-major order as alternating varint lengths of runs
+ * of unset and set bits, starting with a possibly empty run of unset bits. The
+ * neighbouring mine counts are not stored but recomputed on load. Boards whose
+ * mines have not been placed yet store the number of pending mines and their seed
+ * in the header.
+ * <p>
+ * Both directions only buffer a small fixed amount of data besides the board
+ * itself, so boards with hundreds of millions of tiles can be saved and
+ * loaded.
+ */
+public final class BoardFile {
+	private static final int MAGIC = 'M' << 24 | 'S' << 16 | 'B' << 8 | 'D';
+	private static final byte VERSION = 2;
+	private static final int HEADER_SIZE_V1 = 4 + 1 + 4 + 4, HEADER_SIZE = HEADER_SIZE_V1 + 4 + 8;
+	/**
+	 * The approximate number of tiles per band.
+	 */
+	private static final int BAND_TILES = 1 << 20;
+	private static final int BUFFER_SIZE = 64 * 1024;
+	private static final int[] PLANES = {Board.MINE_BIT, Board.REVEALED_BIT, Board.FLAG_BIT};
+
+	private BoardFile() {}
+
+	private static int bandWidth(int height) {
+		return Math.max(1, BAND_TILES / height);
+	}
+
+	/**
+	 * Writes a board to a channel.
+	 *
+	 * @param board   The square board to serialize.
+	 * @param channel The channel to write to.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	public static void write(Board board, WritableByteChannel channel) throws IOException {
+		// The neighbouring mine counts are recomputed for the square topology on load
+		if (board.getTopology() != Topology.SQUARE) throw new IllegalArgumentException("Only square boards can be saved.");
+		int width = board.getWidth(), height = board.getHeight();
+		ByteBuffer buf = ByteBuffer.allocate(BUFFER_SIZE);
+		buf.putInt(MAGIC).put(VERSION).putInt(width).putInt(height)
+				.putInt(board.getPendingMines()).putLong(board.getSeed());
+
+		for (int bandStart = 0, bandWidth = bandWidth(height); bandStart < width; bandStart += bandWidth) {
+			int bandEnd = Math.min(width, bandStart + bandWidth);
+			for (int bit : PLANES) {
+				int run = 0, state = 0;
+				for (int x = bandStart; x < bandEnd; ++x)
+					for (int y = 0; y < height; ++y) {
+						if ((board.getTileUnchecked(x, y) & bit) != state) {
+							if (buf.remaining() < Varint.MAX_INT_BYTES) flush(buf, channel);
+							Varint.putInt(buf, run);
+							run = 0;
+							state ^= bit;
+						}
+						++run;
+					}
+				if (buf.remaining() < Varint.MAX_INT_BYTES) flush(buf, channel);
+				Varint.putInt(buf, run);
+			}
+		}
+		flush(buf, channel);
+	}
+
+	private static void flush(ByteBuffer buf, WritableByteChannel channel) throws IOException {
+		buf.flip();
+		while (buf.hasRemaining()) channel.write(buf);
+		buf.clear();
+	}
+
+	/**
+	 * Reads a board from a channel.
+	 *
+	 * @param channel The channel to read from.
+	 * @return The deserialized board.
+	 * @throws IOException If an I/O error occurs or the data is malformed.
+	 */
+	public static Board read(ReadableByteChannel channel) throws IOException {
+		ByteBuffer buf = ByteBuffer.allocate(BUFFER_SIZE);
+		buf.flip();
+		fill(buf, channel, HEADER_SIZE_V1);
+		if (buf.remaining() < HEADER_SIZE_V1 || buf.getInt() != MAGIC) throw new IOException("Not a board file.");
+		byte version = buf.get();
+		if (version < 1 || version > VERSION) throw new IOException("Unsupported board file version " + version + '.');
+		int width = buf.getInt(), height = buf.getInt();
+		if (width <= 0 || height <= 0) throw new IOException("Invalid board dimensions.");
+		int pendingMines = 0;
+		long seed = 0;
+		if (version >= 2) {
+			fill(buf, channel, HEADER_SIZE - HEADER_SIZE_V1);
+			if (buf.remaining() < HEADER_SIZE - HEADER_SIZE_V1) throw new EOFException("Truncated header.");
+			pendingMines = buf.getInt();
+			seed = buf.getLong();
+			if (pendingMines < 0 || pendingMines >= width * height) throw new IOException("Invalid number of mines.");
+		}
+
+		byte[][] field = new byte[width][height];
+		int remaining = 0;
+		try {
+			for (int bandStart = 0, bandWidth = bandWidth(height); bandStart < width; bandStart += bandWidth) {
+				int bandEnd = Math.min(width, bandStart + bandWidth);
+				for (int bit : PLANES) {
+					long left = (long) (bandEnd - bandStart) * height;
+					int x = bandStart, y = 0, state = 0;
+					do {
+						fill(buf, channel, Varint.MAX_INT_BYTES);
+						int run = Varint.getInt(buf);
+						if (run < 0 || run > left) throw new IOException("Run exceeds the band.");
+						left -= run;
+						for (; run > 0; --run) {
+							if (state != 0) {
+								field[x][y] |= bit;
+								if (bit == Board.MINE_BIT) incrementNeighbours(field, x, y);
+							}
+							if (++y == height) {
+								y = 0;
+								++x;
+							}
+						}
+						state ^= bit;
+					} while (left > 0);
+				}
+				for (int x = bandStart; x < bandEnd; ++x)
+					for (int y = 0; y < height; ++y)
+						if ((field[x][y] & (Board.MINE_BIT | Board.REVEALED_BIT)) == 0) ++remaining;
+			}
+		} catch (BufferUnderflowException | IllegalArgumentException e) {
+			throw new EOFException("Unexpected end of board file.");
+		}
+		return new Board(field, remaining - pendingMines, pendingMines, seed);
+	}
+
+	private static void incrementNeighbours(byte[][] field, int x, int y) {
+		int width = field.length, height = field[0].length;
+		for (int nx = Math.max(x - 1, 0), endX = Math.min(x + 1, width - 1); nx <= endX; ++nx)
+			for (int ny = Math.max(y - 1, 0), endY = Math.min(y + 1, height - 1); ny <= endY; ++ny)
+				if (nx != x || ny != y) ++field[nx][ny];
+	}
+
+	/**
+	 * Reads from the channel until at least the specified number of bytes are buffered or the end of stream.
+	 */
+	private static void fill(ByteBuffer buf, ReadableByteChannel channel, int minBytes) throws IOException {
+		if (buf.remaining() >= minBytes) return;
+		buf.compact();
+		while (buf.position() < minBytes)
+			if (channel.read(buf) < 0) break;
+		buf.flip();
+	}
+}
@@ -19,11 +19,23 @@ import java.nio.ByteBuffer;
 
 public class BoardRenderer extends Widget implements EventListener {
 	private static final int TILE_SIZE = 32;
+	/**
+	 * The maximum number of tiles uploaded to the texture per frame.
+	 */
+	private static final int MAX_UPLOAD_TILES = 1 << 16;
 	private Texture tileTexture;
 	private ShaderProgram shader;
 	private Texture sprites;
 	private final Board board;
+	/**
+	 * Performs the moves off the render thread.
+	 */
+	private final GameLogic logic;
 	private ByteBuffer pixels;
+	/**
+	 * Scratch space for the tiles of the region being updated.
+	 */
+	private byte[] tiles;
 	private Vector2 viewOffset = new Vector2();
 	private float scale = 1.0f;
 	private Vector2 lastSize = new Vector2(0, 0);
@@ -46,12 +58,20 @@ public class BoardRenderer extends Widget implements EventListener {
 	}
 
 	public BoardRenderer(Stage stage, Skin skin, Board board) {
+		this(stage, skin, board, new GameLogic(board, null));
+	}
+
+	/**
+	 * @param logic The not yet started logic mutating the board, which is started by this renderer.
+	 */
+	public BoardRenderer(Stage stage, Skin skin, Board board, GameLogic logic) {
 		setTouchable(Touchable.enabled);
 		addListener(this);
 		addListener(new BoardGestureListener());
 		this.stage = stage;
 		this.skin = skin;
 		this.board = board;
+		this.logic = logic;
 
 		sprites = new Texture("tilesheet.png");
 
@@ -68,6 +88,8 @@ public class BoardRenderer extends Widget implements EventListener {
 			i += 3;
 		}
 		Gdx.gl.glTexImage2D(GL20.GL_TEXTURE_2D, 0, GL20.GL_RGB, w, h, 0, GL20.GL_RGB, GL20.GL_UNSIGNED_BYTE, pixels);
+		// The board may have been restored mid-game
+		updateRegion(board, 0, 0, w, h);
 
 		// Start with the board centered
 		viewOffset.add(new Vector2(w, h).scl(TILE_SIZE).scl(scale).scl(0.5f));
@@ -107,15 +129,44 @@ public class BoardRenderer extends Widget implements EventListener {
 						+ "	gl_FragColor = texture2D(sprites, (spriteOffset + spriteCoord) * inverseSpriteTextureSize);\n"
 						+ "}\n";
 		shader = new ShaderProgram(vertexShader, fragmentShader);
-		if (!shader.isCompiled()) {
-		}
-		System.out.println(shader.getLog());
+		if (!shader.isCompiled()) Gdx.app.error("BoardRenderer", "Could not compile shader: " + shader.getLog());
 		shader.bind();
 		shader.setUniformf("tileSize", TILE_SIZE);
 		shader.setUniformf("inverseTileSize", 1f / TILE_SIZE, 1f / TILE_SIZE);
 		shader.setUniformf("inverseTileTextureSize", 1f / w, 1f / h);
 		shader.setUniformf("inverseSpriteTextureSize", 1f / sprites.getWidth(), 1f / sprites.getHeight());
 		shader.setUniformi("sprites", 1);
+
+		logic.start(new GameLogic.Listener() {
+			@Override
+			public void onUpdate() {
+				Gdx.graphics.requestRendering();
+			}
+
+			@Override
+			public void onWin() {
+				Gdx.app.postRunnable(BoardRenderer.this::onWin);
+			}
+
+			@Override
+			public void onGameOver() {
+				Gdx.app.postRunnable(BoardRenderer.this::onGameOver);
+			}
+
+			@Override
+			public void onJournalFailed(RuntimeException cause) {
+				Gdx.app.error("BoardRenderer", "Could not record moves, the game is no longer saved", cause);
+			}
+		});
+	}
+
+	@Override
+	public void act(float delta) {
+		super.act(delta);
+		// Upload what the logic thread revealed so far, spreading big reveals over several frames
+		Board.Bounds bounds = logic.takeDirtyRegion(MAX_UPLOAD_TILES);
+		if (bounds != null) updateRegion(board, bounds.minX, bounds.minY, bounds.maxX, bounds.maxY);
+		if (logic.hasDirtyRegion()) Gdx.graphics.requestRendering();
 	}
 
 	@Override
@@ -173,22 +224,22 @@ public class BoardRenderer extends Widget implements EventListener {
 	};
 
 	private void updateRegion(Board board, int x1, int y1, int x2, int y2) {
-		System.out.println("minX: " + x1 + " minY: " + y1 + " maxX: " + x2 + " maxY: " + y2);
+		if (Gdx.app.getLogLevel() >= Application.LOG_DEBUG)
+			Gdx.app.debug("BoardRenderer", "Updating region minX: " + x1 + " minY: " + y1 + " maxX: " + x2 + " maxY: " + y2);
 		// Early out if nothing to update
 		if (x2 - x1 == 0 || y2 - y1 == 0) return;
 
-		int i = 0;
-		for (int y = y1; y < y2; ++y) {
-			for (int x = x1; x < x2; ++x) {
-				TileSprite sprite = spriteByTile[board.getTile(x, y)];
-				if (sprite == null) System.out.println(board.getTile(x, y));
-				assert sprite != null;
-
-				pixels.put(i, (byte) sprite.x);
-				pixels.put(i + 1, (byte) sprite.y);
-				pixels.put(i + 2, (byte) 0);
-				i += 3;
-			}
+		final int size = (x2 - x1) * (y2 - y1);
+		if (tiles == null || tiles.length < size) tiles = new byte[size];
+		board.copyRegion(new Board.Bounds(x1, y1, x2, y2), tiles, 0);
+		for (int j = 0, i = 0; j < size; ++j, i += 3) {
+			TileSprite sprite = spriteByTile[tiles[j]];
+			if (sprite == null) Gdx.app.error("BoardRenderer", "No sprite for tile " + tiles[j]);
+			assert sprite != null;
+
+			pixels.put(i, (byte) sprite.x);
+			pixels.put(i + 1, (byte) sprite.y);
+			pixels.put(i + 2, (byte) 0);
 		}
 
 		tileTexture.bind(0);
@@ -196,25 +247,6 @@ public class BoardRenderer extends Widget implements EventListener {
 		Gdx.gl.glTexSubImage2D(GL20.GL_TEXTURE_2D, 0, x1, y1, width, height, GL20.GL_RGB, GL20.GL_UNSIGNED_BYTE, pixels);
 	}
 
-	/**
-	 * Returns whether or not the player has placed the correct number of flags around a tile.
-	 *
-	 * @param board The current board state.
-	 * @param x     The x-coordinate of the tile.
-	 * @param y     The y-coordinate of the tile.
-	 * @return Returns whether surrounding tiles should be cleared.
-	 */
-	private boolean shouldClearAround(Board board, int x, int y) {
-		if ((board.getTile(x, y) & Board.REVEALED_BIT) == 0)
-			throw new IllegalArgumentException();
-
-		final int neighbouringMines = board.getNeighbouringMineCount(x, y);
-		final long neighbouringFlags = board.getNeighbouringTiles(x, y)
-				.filter(c -> (board.getTile(c) & Board.FLAG_BIT) != 0).count();
-
-		return neighbouringFlags == neighbouringMines;
-	}
-
 	private void onWin() {
 		Dialog dialog = new Dialog("Win", skin, "dialog") {
 			public void result(Object obj) {
@@ -266,37 +298,11 @@ public class BoardRenderer extends Widget implements EventListener {
 	private void performMouseAction(float x, float y, MouseIntent intent) {
 		y = getHeight() - y;
 		final Coord c = getCoordUnderCursor(x, y);
-		System.out.println("Clicking coord: " + c);
+		Gdx.app.debug("BoardRenderer", "Clicking coord: " + c);
 		if (board.isOutOfBounds(c)) return;
 
-		final int tileType = board.getTile(c);
-		if ((tileType & Board.REVEALED_BIT) != 0) {
-			// Chord
-			if (shouldClearAround(board, c.x, c.y)) {
-				Board.ClearTileResult clearResult = board.clearTiles(board.getNeighbouringTiles(c.x, c.y).toArray(Coord[]::new));
-				Board.Bounds bounds = clearResult.dirtyRegion;
-				updateRegion(board, bounds.minX, bounds.minY, bounds.maxX, bounds.maxY);
-				if (board.getRemainingTiles() == 0) {
-					onWin();
-				} else if (clearResult.wasMine) {
-					onGameOver();
-				}
-			}
-		} else {
-			if (intent == MouseIntent.CLICK) {
-				Board.ClearTileResult clearResult = board.clearTiles(c);
-				Board.Bounds bounds = clearResult.dirtyRegion;
-				updateRegion(board, bounds.minX, bounds.minY, bounds.maxX, bounds.maxY);
-				if (board.getRemainingTiles() == 0) {
-					onWin();
-				} else if (clearResult.wasMine) {
-					onGameOver();
-				}
-			} else if (intent == MouseIntent.SET_FLAG) {
-				board.toggleFlag(c.x, c.y);
-				updateRegion(board, c.x, c.y, c.x + 1, c.y + 1);
-			}
-		}
+		// Whether to chord is decided by the logic thread, which owns the board
+		logic.submit(intent == MouseIntent.SET_FLAG ? Move.Type.FLAG : Move.Type.CLEAR, c.x, c.y);
 	}
 
 
@@ -7,6 +7,12 @@ import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.RecursiveAction;
 import java.util.concurrent.ThreadLocalRandom;
 
+/**
+ * @deprecated Places every mine independently with a fixed chance and tops up
+ * from nearby tiles, so the layout is not uniformly distributed. Use
+ * {@link Board#generate(int, int, int, java.util.Random)}, which samples uniformly.
+ */
+@Deprecated
 public class FastBoardBuilder {
 	private final Board board;
 	private final byte[][] field;
@@ -82,6 +88,8 @@ public class FastBoardBuilder {
 		ForkGen forkGen = new ForkGen(0, field.length, numMines);
 		ForkJoinPool pool = new ForkJoinPool();
 		pool.invoke(forkGen);
+		// The mines were written to the field behind the back of the board
+		board.rehash();
 
 		return board;
 	}
@@ -0,0 +1,246 @@
+package minesweeper;
+
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * Runs the game logic on a dedicated thread so the render thread never waits on it.
+ * <p>
+ * Input is submitted through a coalescing queue. While a large area is revealed,
+ * the flood fill publishes the rows it has finished, allowing the renderer to
+ * show the reveal spreading over several frames. The renderer reads the board
+ * concurrently, but only the regions it has taken via
+ * {@link #takeDirtyRegion(int)}, which happen after the tiles were written.
+ */
+public final class GameLogic implements Runnable {
+	/**
+	 * Callbacks from the logic thread.
+	 */
+	public interface Listener {
+		/**
+		 * Called when there is a dirty region to take.
+		 */
+		void onUpdate();
+
+		void onWin();
+
+		void onGameOver();
+
+		/**
+		 * Called once when moves can no longer be recorded in the journal.
+		 * <p>
+		 * The game goes on, but the moves from here on are not saved.
+		 *
+		 * @param cause The failure of the journal.
+		 */
+		void onJournalFailed(RuntimeException cause);
+	}
+
+	private final Board board;
+	/**
+	 * The journal to record moves in, or {@code null}. Only accessed by the logic thread once started.
+	 */
+	private MoveJournal journal;
+	private Listener listener;
+	private Thread thread;
+	private volatile boolean running;
+
+	private final Object inputLock = new Object();
+	/**
+	 * Packed moves waiting to be performed, oldest first.
+	 */
+	private long[] inputs = new long[16];
+	private int numInputs;
+
+	private final Object dirtyLock = new Object();
+	/**
+	 * The region updated since it was last taken, or {@code null}.
+	 */
+	private Board.Bounds dirtyRegion;
+
+	/**
+	 * @param board   The board to mutate. It must only be mutated by this logic afterwards.
+	 * @param journal The journal to record performed moves in, or {@code null}.
+	 */
+	public GameLogic(Board board, MoveJournal journal) {
+		this.board = board;
+		this.journal = journal;
+	}
+
+	/**
+	 * Starts the logic thread.
+	 *
+	 * @param listener The listener to notify.
+	 */
+	public void start(Listener listener) {
+		this.listener = listener;
+		board.setRevealListener(this::publish);
+		running = true;
+		// Big openings recurse deeply in the flood fill
+		thread = new Thread(null, this, "game-logic", 1 << 28);
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Stops the logic thread, waiting for the current move to finish.
+	 * <p>
+	 * Moves still in the queue are discarded.
+	 */
+	public void stop() {
+		synchronized (inputLock) {
+			running = false;
+			inputLock.notifyAll();
+		}
+		if (thread != null) {
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		board.setRevealListener(null);
+	}
+
+	/**
+	 * Queues a player action on a tile.
+	 * <p>
+	 * Clicking a revealed tile chords it, independent of the type. An action
+	 * identical to the last queued one is coalesced: a repeated clear is
+	 * dropped and a repeated flag toggle cancels out.
+	 *
+	 * @param type Either {@link Move.Type#CLEAR} or {@link Move.Type#FLAG}.
+	 * @param x    The x-coordinate of the tile.
+	 * @param y    The y-coordinate of the tile.
+	 */
+	public void submit(Move.Type type, int x, int y) {
+		long move = Move.pack(type, x, y);
+		synchronized (inputLock) {
+			if (numInputs > 0 && inputs[numInputs - 1] == move) {
+				if (type == Move.Type.FLAG) --numInputs;
+				return;
+			}
+			if (numInputs == inputs.length) inputs = Arrays.copyOf(inputs, 2 * numInputs);
+			inputs[numInputs++] = move;
+			inputLock.notifyAll();
+		}
+	}
+
+	int getNumPendingInputs() {
+		synchronized (inputLock) {
+			return numInputs;
+		}
+	}
+
+	/**
+	 * Takes part of the region updated since the last call.
+	 * <p>
+	 * Large regions are handed out a few rows at a time, keeping the time
+	 * spent uploading them per frame bounded.
+	 *
+	 * @param maxTiles The maximum number of tiles to take.
+	 * @return The region to redraw, or {@code null} if nothing changed.
+	 */
+	public Board.Bounds takeDirtyRegion(int maxTiles) {
+		synchronized (dirtyLock) {
+			Board.Bounds region = dirtyRegion;
+			if (region == null) return null;
+			int rows = Math.max(1, maxTiles / Math.max(1, region.maxX - region.minX));
+			if (region.maxY - region.minY <= rows) {
+				dirtyRegion = null;
+				return region;
+			}
+			dirtyRegion = new Board.Bounds(region.minX, region.minY + rows, region.maxX, region.maxY);
+			return new Board.Bounds(region.minX, region.minY, region.maxX, region.minY + rows);
+		}
+	}
+
+	public boolean hasDirtyRegion() {
+		synchronized (dirtyLock) {
+			return dirtyRegion != null;
+		}
+	}
+
+	private void publish(int minX, int minY, int maxX, int maxY) {
+		if (minX >= maxX || minY >= maxY) return;
+		synchronized (dirtyLock) {
+			Board.Bounds region = dirtyRegion;
+			if (region == null) dirtyRegion = new Board.Bounds(minX, minY, maxX, maxY);
+			else {
+				region.minX = Math.min(region.minX, minX);
+				region.minY = Math.min(region.minY, minY);
+				region.maxX = Math.max(region.maxX, maxX);
+				region.maxY = Math.max(region.maxY, maxY);
+			}
+		}
+		listener.onUpdate();
+	}
+
+	@Override
+	public void run() {
+		for (; ; ) {
+			long move;
+			synchronized (inputLock) {
+				while (running && numInputs == 0) {
+					try {
+						inputLock.wait();
+					} catch (InterruptedException e) {
+						return;
+					}
+				}
+				if (!running) return;
+				move = inputs[0];
+				System.arraycopy(inputs, 1, inputs, 0, --numInputs);
+			}
+			perform(Move.getType(move), Move.getX(move), Move.getY(move));
+		}
+	}
+
+	private void perform(Move.Type type, int x, int y) {
+		if (x >= board.getWidth() || y >= board.getHeight()) return;
+		Board.ClearTileResult result;
+		if ((board.getTile(x, y) & Board.REVEALED_BIT) != 0) {
+			if (!shouldClearAround(x, y)) return;
+			result = board.clearNeighbours(x, y);
+			record(Move.Type.CHORD, x, y);
+		} else if (type == Move.Type.CLEAR) {
+			result = board.clearTile(x, y);
+			record(Move.Type.CLEAR, x, y);
+		} else {
+			board.toggleFlag(x, y);
+			record(Move.Type.FLAG, x, y);
+			publish(x, y, x + 1, y + 1);
+			return;
+		}
+
+		Board.Bounds bounds = result.dirtyRegion;
+		publish(bounds.minX, bounds.minY, bounds.maxX, bounds.maxY);
+		if (board.getRemainingTiles() == 0) {
+			listener.onWin();
+		} else if (result.wasMine) {
+			listener.onGameOver();
+		}
+	}
+
+	private void record(Move.Type type, int x, int y) {
+		if (journal == null) return;
+		try {
+			journal.record(Move.pack(type, x, y));
+		} catch (UncheckedIOException | IllegalStateException e) {
+			// The move was performed already, so keep playing without the journal
+			journal = null;
+			listener.onJournalFailed(e);
+		}
+	}
+
+	/**
+	 * Returns whether or not the player has placed the correct number of flags around a tile.
+	 *
+	 * @param x The x-coordinate of the tile.
+	 * @param y The y-coordinate of the tile.
+	 * @return Returns whether surrounding tiles should be cleared.
+	 */
+	private boolean shouldClearAround(int x, int y) {
+		return board.countNeighbours(x, y, Board.FLAG_BIT) == board.getNeighbouringMineCount(x, y);
+	}
+}
@@ -13,6 +13,10 @@ import com.badlogic.gdx.scenes.scene2d.ui.Table;
 import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
 import com.badlogic.gdx.utils.viewport.ScreenViewport;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+
 public class GdxGame extends ApplicationAdapter {
 	// private static final int WIDTH = 30, HEIGHT = 16, NUM_MINES = 99;
 	private static final int WIDTH = 30, HEIGHT = 16, NUM_MINES = 50;
@@ -22,6 +26,8 @@ public class GdxGame extends ApplicationAdapter {
 	private Stage stage;
 	private Skin skin;
 	private Label label;
+	private MoveJournal journal;
+	private GameLogic logic;
 
 	@Override
 	public void create() {
@@ -39,10 +45,28 @@ public class GdxGame extends ApplicationAdapter {
 		Texture background = new Texture("background.png");
 		table.setBackground(new TextureRegionDrawable(new TextureRegion(background)));
 
-		// Board board = Board.generate(WIDTH, HEIGHT, NUM_MINES);
-		Board board = new FastBoardBuilder(WIDTH, HEIGHT, NUM_MINES).build();
-
-		BoardRenderer boardRenderer = new BoardRenderer(stage, skin, board);
+		// Resume the previous game if the process was killed
+		Path savePath = Gdx.files.local("save").file().toPath();
+		Board board = null;
+		try {
+			board = MoveJournal.recover(savePath);
+		} catch (IOException e) {
+			Gdx.app.error("GdxGame", "Could not recover saved game", e);
+		}
+		if (board == null || board.getRemainingTiles() == 0) {
+			// board = Board.generate(WIDTH, HEIGHT, NUM_MINES);
+			// board = new FastBoardBuilder(WIDTH, HEIGHT, NUM_MINES).build();
+			// Place the mines on the first click, keeping startup independent of the board size
+			board = Board.deferred(WIDTH, HEIGHT, NUM_MINES, new Random().nextLong());
+		}
+		try {
+			journal = new MoveJournal(savePath, board);
+		} catch (IOException e) {
+			Gdx.app.error("GdxGame", "Could not open move journal", e);
+		}
+
+		logic = new GameLogic(board, journal);
+		BoardRenderer boardRenderer = new BoardRenderer(stage, skin, board, logic);
 		table.add(boardRenderer).expand().fill().row();
 		stage.setScrollFocus(boardRenderer);
 
@@ -73,5 +97,14 @@ public class GdxGame extends ApplicationAdapter {
 		batch.dispose();
 		stage.dispose();
 		skin.dispose();
+		// The logic thread must be done recording before the journal is closed
+		logic.stop();
+		if (journal != null) {
+			try {
+				journal.close();
+			} catch (IOException e) {
+				Gdx.app.error("GdxGame", "Could not close move journal", e);
+			}
+		}
 	}
 }
@@ -0,0 +1,357 @@
+package minesweeper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A read-only board stored in a memory-mapped file, for boards too large to generate on the heap.
+ * <p>
+ * The file holds a header followed by one byte per tile in the format of
+ * {@link Board#getTile(int, int)}, in column-major order. {@link #generate}
+ * writes it through mappings of bands of columns: the mines are chosen in tile
+ * order by a sequential sampler and written a column ahead, and the neighbours
+ * are then counted in chunks of rows of the previous, current and next column.
+ * The heap use is therefore bounded independent of the size of the board, and
+ * the tiles only ever live in the page cache.
+ */
+public final class MappedBoard {
+	private static final int MAGIC = 'M' << 24 | 'S' << 16 | 'M' << 8 | 'B';
+	private static final byte VERSION = 1;
+	/**
+	 * The offset of the tiles, leaving the header padded for alignment.
+	 */
+	private static final int HEADER_SIZE = 32;
+	/**
+	 * The approximate number of tiles mapped at once while generating.
+	 */
+	private static final int BAND_TILES = 1 << 24;
+	/**
+	 * The number of rows of a column counted at once while generating.
+	 */
+	private static final int CHUNK_ROWS = 1 << 16;
+	/**
+	 * The maximum number of tiles per mapping of a view.
+	 */
+	private static final int SEGMENT_TILES = 1 << 30;
+
+	private final int width, height;
+	private final long numMines;
+	/**
+	 * Mappings of consecutive runs of whole columns.
+	 */
+	private final ByteBuffer[] segments;
+	private final int columnsPerSegment;
+
+	private MappedBoard(int width, int height, long numMines, ByteBuffer[] segments, int columnsPerSegment) {
+		this.width = width;
+		this.height = height;
+		this.numMines = numMines;
+		this.segments = segments;
+		this.columnsPerSegment = columnsPerSegment;
+	}
+
+	/**
+	 * Generates a board with uniformly distributed mines into a file.
+	 * <p>
+	 * Files generated from generators with the same seed are identical, but
+	 * differ from the boards of {@link Board#generate(int, int, int, Random)}.
+	 *
+	 * @param path     The file to write, which is replaced if it exists.
+	 * @param width    The width of the generated board.
+	 * @param height   The height of the generated board.
+	 * @param numMines The number of mines.
+	 * @param random   The random number generator to place the mines with.
+	 * @throws IOException If an I/O error occurs.
+	 */
+	public static void generate(Path path, int width, int height, long numMines, Random random) throws IOException {
+		generate(path, width, height, numMines, random, BAND_TILES, CHUNK_ROWS);
+	}
+
+	static void generate(Path path, int width, int height, long numMines, Random random, int bandTiles, int chunkRows) throws IOException {
+		if (width <= 0 || height <= 0) throw new IllegalArgumentException("Invalid board dimensions.");
+		long numTiles = (long) width * height;
+		if (numMines < 0 || numMines > numTiles) throw new IllegalArgumentException("Too many mines.");
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+				StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			header.putInt(MAGIC).put(VERSION).putInt(width).putInt(height).putLong(numMines).clear();
+			while (header.hasRemaining()) channel.write(header);
+
+			MineSampler sampler = new MineSampler(numTiles, numMines, random);
+			Bands bands = new Bands(channel, width, height, Math.max(1, bandTiles / height));
+			// Rows of the columns left of, at and right of the column being counted, plus the row either side
+			byte[] left = new byte[chunkRows + 2], column = new byte[chunkRows + 2], right = new byte[chunkRows + 2];
+			sampler.fill(bands.get(0), 0, 0, height);
+			for (int x = 0; x < width; ++x) {
+				// The mine bits are written ahead of the counting, which then only adds the low nibble
+				if (x + 1 < width) sampler.fill(bands.get(x + 1), bands.offset(x + 1), (long) (x + 1) * height, height);
+				ByteBuffer band = bands.get(x);
+				int offset = bands.offset(x);
+				for (int y = 0; y < height; y += chunkRows) {
+					int rows = Math.min(chunkRows, height - y);
+					if (height <= chunkRows && x > 0) {
+						// Whole columns fit in a chunk, so the last two are still at hand
+						byte[] t = left;
+						left = column;
+						column = right;
+						right = t;
+					} else {
+						readRows(x > 0 ? bands.get(x - 1) : null, x > 0 ? bands.offset(x - 1) : 0, height, y, rows, left);
+						readRows(band, offset, height, y, rows, column);
+					}
+					readRows(x + 1 < width ? bands.get(x + 1) : null, x + 1 < width ? bands.offset(x + 1) : 0, height, y, rows, right);
+					countRows(left, column, right, rows);
+					band.position(offset + y);
+					band.put(column, 1, rows);
+				}
+			}
+		}
+	}
+
+	/**
+	 * The mappings of the bands of columns around the column being generated.
+	 */
+	private static final class Bands {
+		private final FileChannel channel;
+		private final int width, height, bandWidth;
+		private final MappedByteBuffer[] mappings = new MappedByteBuffer[3];
+		private final int[] indices = {-1, -1, -1};
+
+		Bands(FileChannel channel, int width, int height, int bandWidth) {
+			this.channel = channel;
+			this.width = width;
+			this.height = height;
+			this.bandWidth = bandWidth;
+		}
+
+		/**
+		 * Returns the mapping of the band holding a column, mapping it if needed.
+		 */
+		MappedByteBuffer get(int x) throws IOException {
+			int band = x / bandWidth, slot = band % 3;
+			if (indices[slot] != band) {
+				long start = (long) band * bandWidth;
+				mappings[slot] = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE + start * height,
+						(Math.min(width, start + bandWidth) - start) * height);
+				indices[slot] = band;
+			}
+			return mappings[slot];
+		}
+
+		/**
+		 * Returns the position of a column in the mapping of its band.
+		 */
+		int offset(int x) {
+			return x % bandWidth * height;
+		}
+	}
+
+	/**
+	 * Copies rows of a column, along with the row above and below them.
+	 *
+	 * @param band   The mapping holding the column, or {@code null} if it is outside the board.
+	 * @param offset The position of the column in the mapping.
+	 * @param height The height of the column.
+	 * @param y      The first row to copy.
+	 * @param rows   The number of rows.
+	 * @param dst    The array to copy the rows to, starting with the row above. Rows outside the board are zero.
+	 */
+	private static void readRows(ByteBuffer band, int offset, int height, int y, int rows, byte[] dst) {
+		if (band == null) {
+			Arrays.fill(dst, 0, rows + 2, (byte) 0);
+			return;
+		}
+		int from = Math.max(0, y - 1), to = Math.min(height, y + rows + 1);
+		dst[0] = dst[rows + 1] = 0;
+		band.position(offset + from);
+		band.get(dst, from - (y - 1), to - from);
+	}
+
+	/**
+	 * Adds the neighbouring mine counts to rows of a column, as {@link Board} does.
+	 */
+	private static void countRows(byte[] left, byte[] column, byte[] right, int rows) {
+		// Slide a window over the numbers of mines in the rows of the three columns
+		int previous = (left[0] >> 4 & 1) + (column[0] >> 4 & 1) + (right[0] >> 4 & 1),
+				current = (left[1] >> 4 & 1) + (column[1] >> 4 & 1) + (right[1] >> 4 & 1);
+		for (int y = 1; y <= rows; ++y) {
+			int next = (left[y + 1] >> 4 & 1) + (column[y + 1] >> 4 & 1) + (right[y + 1] >> 4 & 1);
+			column[y] = (byte) (column[y] | previous + current + next - (column[y] >> 4 & 1));
+			previous = current;
+			current = next;
+		}
+	}
+
+	/**
+	 * Chooses the mines in increasing tile order, with Vitter's Algorithm A.
+	 * <p>
+	 * Draws one random number per mine and computes the number of tiles to skip
+	 * until the next mine from it, so every subset of tiles is equally likely.
+	 * Boards more than half full instead sample the tiles to keep free.
+	 */
+	static final class MineSampler {
+		private static final byte[] MINES = new byte[4096];
+
+		static {
+			Arrays.fill(MINES, (byte) Board.MINE_BIT);
+		}
+
+		private final Random random;
+		private final boolean dense;
+		private long tilesLeft, minesLeft;
+		/**
+		 * The index of the next sampled tile, or {@link Long#MAX_VALUE} if all have been sampled.
+		 */
+		private long next;
+
+		MineSampler(long numTiles, long numMines, Random random) {
+			this.random = random;
+			dense = numMines > numTiles / 2;
+			tilesLeft = numTiles;
+			minesLeft = dense ? numTiles - numMines : numMines;
+			next = advance(0);
+		}
+
+		/**
+		 * Sets the mine bits of the mines among a run of tiles, which must be zero.
+		 *
+		 * @param tiles  The buffer holding the tiles.
+		 * @param offset The position of the first tile in the buffer.
+		 * @param start  The index of the first tile.
+		 * @param length The number of tiles.
+		 */
+		void fill(ByteBuffer tiles, int offset, long start, int length) {
+			if (dense) {
+				tiles.position(offset);
+				for (int n = length; n > 0; n -= MINES.length) tiles.put(MINES, 0, Math.min(n, MINES.length));
+			}
+			for (long end = start + length; next < end; next = advance(next + 1)) {
+				int i = offset + (int) (next - start);
+				tiles.put(i, (byte) (tiles.get(i) ^ Board.MINE_BIT));
+			}
+		}
+
+		/**
+		 * Returns the index of the next sampled tile, given the index of the next tile to consider.
+		 */
+		private long advance(long position) {
+			if (minesLeft == 0) return Long.MAX_VALUE;
+			long skip = 0;
+			if (minesLeft == 1) skip = (long) (tilesLeft * random.nextDouble());
+			else {
+				// Skip tiles while the chance that none of them holds a mine exceeds the random number
+				double v = random.nextDouble(), top = tilesLeft - minesLeft, n = tilesLeft, quot = top / n;
+				while (quot > v) {
+					++skip;
+					--top;
+					--n;
+					quot *= top / n;
+				}
+			}
+			tilesLeft -= skip + 1;
+			--minesLeft;
+			return position + skip;
+		}
+	}
+
+	/**
+	 * Opens a board file as a read-only view.
+	 * <p>
+	 * The file is mapped, so the view uses no heap for the tiles and stays
+	 * valid after the file is closed.
+	 *
+	 * @param path The file to open.
+	 * @return The view of the board.
+	 * @throws IOException If an I/O error occurs or the file is malformed.
+	 */
+	public static MappedBoard open(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+			while (header.hasRemaining()) if (channel.read(header) < 0) break;
+			header.flip();
+			if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC) throw new IOException("Not a mapped board file.");
+			byte version = header.get();
+			if (version != VERSION) throw new IOException("Unsupported mapped board file version " + version + '.');
+			int width = header.getInt(), height = header.getInt();
+			long numMines = header.getLong();
+			if (width <= 0 || height <= 0) throw new IOException("Invalid board dimensions.");
+			if (numMines < 0 || numMines > (long) width * height) throw new IOException("Invalid number of mines.");
+			if (channel.size() < HEADER_SIZE + (long) width * height) throw new IOException("Truncated board file.");
+
+			int columnsPerSegment = Math.max(1, SEGMENT_TILES / height);
+			ByteBuffer[] segments = new ByteBuffer[(width + columnsPerSegment - 1) / columnsPerSegment];
+			for (int i = 0; i < segments.length; ++i) {
+				long start = (long) i * columnsPerSegment;
+				segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + start * height,
+						(Math.min(width, start + columnsPerSegment) - start) * height);
+			}
+			return new MappedBoard(width, height, numMines, segments, columnsPerSegment);
+		}
+	}
+
+	/**
+	 * Loads a board file onto the heap.
+	 *
+	 * @param path The file to load.
+	 * @return The board with all tiles hidden.
+	 * @throws IOException If an I/O error occurs or the file is malformed.
+	 */
+	public static Board load(Path path) throws IOException {
+		return open(path).toBoard();
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public long getNumMines() {
+		return numMines;
+	}
+
+	public int getTile(int x, int y) {
+		if (x < 0 || x >= width || y < 0 || y >= height)
+			throw new IllegalArgumentException("Tile is out of bounds.");
+		return segments[x / columnsPerSegment].get((x % columnsPerSegment) * height + y);
+	}
+
+	public byte getNeighbouringMineCount(int x, int y) {
+		return (byte) (getTile(x, y) & 0xF);
+	}
+
+	/**
+	 * Copies the tiles of a column.
+	 *
+	 * @param x      The x-coordinate of the column.
+	 * @param dst    The array to copy the {@link #getHeight() height} tiles to.
+	 * @param offset The index of the first tile in the array.
+	 */
+	public void copyColumn(int x, byte[] dst, int offset) {
+		if (x < 0 || x >= width) throw new IllegalArgumentException("Column is out of bounds.");
+		ByteBuffer segment = segments[x / columnsPerSegment].duplicate();
+		segment.position((x % columnsPerSegment) * height);
+		segment.get(dst, offset, height);
+	}
+
+	/**
+	 * Copies the board onto the heap, where it can be played.
+	 *
+	 * @return The board with all tiles hidden.
+	 */
+	public Board toBoard() {
+		if ((long) width * height > Integer.MAX_VALUE) throw new IllegalArgumentException("Board is too large to load.");
+		byte[][] field = new byte[width][height];
+		for (int x = 0; x < width; ++x) copyColumn(x, field[x], 0);
+		return new Board(field, (int) ((long) width * height - numMines));
+	}
+}
@@ -0,0 +1,375 @@
+package minesweeper;
+
+import java.util.Random;
+
+/**
+ * Headless harness estimating win rates of a playing strategy by playing many games across all cores.
+ * <p>
+ * Usage: {@code MonteCarlo [-n GAMES] [-t THREADS] [-s random|single-point] WIDTH HEIGHT MINES}
+ * <p>
+ * Every game is played on a {@link Board#deferred(int, int, int, long) deferred}
+ * board, like in the game, so the first clear is always safe. Each thread
+ * reuses one board and one random number generator for all its games. The seed
+ * of every game is derived from its index, so the results do not depend on the
+ * number of threads.
+ */
+public final class MonteCarlo {
+	/**
+	 * Critical value of the standard normal distribution for 95% confidence.
+	 */
+	private static final double Z_95 = 1.959964;
+	/**
+	 * Number of buckets of the move count histogram, the last one collecting all longer games.
+	 */
+	private static final int MOVE_BUCKETS = 1024;
+
+	private MonteCarlo() {}
+
+	/**
+	 * Creates the players of a playing strategy.
+	 * <p>
+	 * Implementations are shared by all threads, while every thread creates
+	 * its own player, which may keep state across the moves of a game.
+	 */
+	public interface Strategy {
+		/**
+		 * Creates a player for a board, which is reused for all games of the player.
+		 *
+		 * @param board The board the player plays on.
+		 * @return The player.
+		 */
+		Player newPlayer(Board board);
+	}
+
+	/**
+	 * Decides the moves of a single thread.
+	 */
+	public interface Player {
+		/**
+		 * Called when a new game starts on the board, which has just been reset.
+		 */
+		default void newGame() {}
+
+		/**
+		 * Returns the next move, on a board on which the game is neither won nor lost.
+		 *
+		 * @param random The source of randomness of the current game.
+		 * @return The packed move, see {@link Move}.
+		 */
+		long nextMove(Random random);
+
+		/**
+		 * Called after every move.
+		 *
+		 * @param dirtyRegion The region the move changed.
+		 */
+		default void moved(Board.Bounds dirtyRegion) {}
+	}
+
+	/**
+	 * Clears random hidden tiles.
+	 */
+	public static final Strategy RANDOM = board -> random -> randomHiddenTile(board, random);
+
+	/**
+	 * Applies the single-point rules to the revealed digits: chords once all
+	 * their mines are flagged, and flags their hidden neighbours once they must
+	 * all be mines. Clears a random hidden tile when no rule applies.
+	 */
+	public static final Strategy SINGLE_POINT = SinglePointPlayer::new;
+
+	/**
+	 * Keeps a worklist of the revealed digits whose neighbourhood changed since they were last looked at.
+	 * <p>
+	 * A rule can only start to apply to a digit when it or one of its
+	 * neighbours changes, so a game costs time in proportion to the tiles its
+	 * moves change instead of scanning the whole board for every move.
+	 */
+	private static final class SinglePointPlayer implements Player {
+		private final Board board;
+		private final int width, height;
+		/**
+		 * Stack of the column-major indices of the digits to look at.
+		 */
+		private final int[] worklist;
+		private int size;
+		/**
+		 * Whether a tile is on the worklist.
+		 */
+		private final boolean[] listed;
+
+		SinglePointPlayer(Board board) {
+			this.board = board;
+			width = board.getWidth();
+			height = board.getHeight();
+			worklist = new int[width * height];
+			listed = new boolean[width * height];
+		}
+
+		@Override
+		public void newGame() {
+			for (int i = 0; i < size; ++i) listed[worklist[i]] = false;
+			size = 0;
+		}
+
+		@Override
+		public void moved(Board.Bounds dirtyRegion) {
+			// Digits next to the region may have had neighbours revealed or flagged
+			for (int x = Math.max(dirtyRegion.minX - 1, 0), endX = Math.min(dirtyRegion.maxX + 1, width); x < endX; ++x)
+				for (int y = Math.max(dirtyRegion.minY - 1, 0), endY = Math.min(dirtyRegion.maxY + 1, height); y < endY; ++y) {
+					int i = x * height + y;
+					if (listed[i] || (board.getTileUnchecked(x, y) & Board.REVEALED_BIT) == 0
+							|| board.getNeighbouringMineCount(x, y) == 0) continue;
+					listed[i] = true;
+					worklist[size++] = i;
+				}
+		}
+
+		@Override
+		public long nextMove(Random random) {
+			while (size > 0) {
+				int i = worklist[--size], x = i / height, y = i % height;
+				listed[i] = false;
+				int mines = board.getNeighbouringMineCount(x, y);
+				int hidden = 0, flags = 0, hiddenX = 0, hiddenY = 0;
+				for (int nx = Math.max(x - 1, 0), endX = Math.min(x + 1, width - 1); nx <= endX; ++nx)
+					for (int ny = Math.max(y - 1, 0), endY = Math.min(y + 1, height - 1); ny <= endY; ++ny) {
+						int neighbour = board.getTileUnchecked(nx, ny);
+						if ((neighbour & Board.REVEALED_BIT) != 0) continue;
+						if ((neighbour & Board.FLAG_BIT) != 0) ++flags;
+						else {
+							++hidden;
+							hiddenX = nx;
+							hiddenY = ny;
+						}
+					}
+				// Digits no rule applies to come back once their neighbourhood changes
+				if (hidden == 0) continue;
+				if (flags == mines) return Move.pack(Move.Type.CHORD, x, y);
+				if (flags + hidden == mines) return Move.pack(Move.Type.FLAG, hiddenX, hiddenY);
+			}
+			return randomHiddenTile(board, random);
+		}
+	}
+
+	private static long randomHiddenTile(Board board, Random random) {
+		for (; ; ) {
+			int x = random.nextInt(board.getWidth()), y = random.nextInt(board.getHeight());
+			if ((board.getTileUnchecked(x, y) & (Board.REVEALED_BIT | Board.FLAG_BIT)) == 0)
+				return Move.pack(Move.Type.CLEAR, x, y);
+		}
+	}
+
+	public static final class Result {
+		public final long games, wins, moves, clears, tilesRevealed, nanos;
+		/**
+		 * Number of games by number of moves, the last bucket holding all longer games.
+		 */
+		final long[] moveCounts;
+
+		Result(long games, long wins, long moves, long clears, long tilesRevealed, long nanos, long[] moveCounts) {
+			this.games = games;
+			this.wins = wins;
+			this.moves = moves;
+			this.clears = clears;
+			this.tilesRevealed = tilesRevealed;
+			this.nanos = nanos;
+			this.moveCounts = moveCounts;
+		}
+
+		public double gamesPerSecond() {
+			return nanos == 0 ? 0 : games * 1e9 / nanos;
+		}
+
+		public double winRate() {
+			return games == 0 ? 0 : (double) wins / games;
+		}
+
+		/**
+		 * Returns the lower bound of the 95% Wilson score interval of the win rate.
+		 */
+		public double winRateLower() {
+			return wilson(-1);
+		}
+
+		/**
+		 * Returns the upper bound of the 95% Wilson score interval of the win rate.
+		 */
+		public double winRateUpper() {
+			return wilson(1);
+		}
+
+		private double wilson(int sign) {
+			if (games == 0) return sign < 0 ? 0 : 1;
+			double p = winRate(), z2n = Z_95 * Z_95 / games;
+			double center = p + z2n / 2, spread = Z_95 * Math.sqrt(p * (1 - p) / games + z2n / (4 * games));
+			return (center + sign * spread) / (1 + z2n);
+		}
+
+		/**
+		 * Returns the average number of tiles revealed by a move that clears tiles.
+		 */
+		public double averageRevealSize() {
+			return clears == 0 ? 0 : (double) tilesRevealed / clears;
+		}
+
+		public double averageMoves() {
+			return games == 0 ? 0 : (double) moves / games;
+		}
+
+		/**
+		 * Returns the smallest number of moves that at least the given fraction of games took at most.
+		 * <p>
+		 * Saturates at the size of the histogram.
+		 */
+		public int movesPercentile(double fraction) {
+			long target = (long) Math.ceil(fraction * games), seen = 0;
+			for (int i = 0; i < moveCounts.length; ++i)
+				if ((seen += moveCounts[i]) >= target) return i;
+			return moveCounts.length - 1;
+		}
+	}
+
+	/**
+	 * Plays games on all threads and aggregates the outcomes.
+	 *
+	 * @param width      The width of the boards.
+	 * @param height     The height of the boards.
+	 * @param numMines   The number of mines.
+	 * @param strategy   The strategy to play with.
+	 * @param games      The number of games to play.
+	 * @param numThreads The number of threads to play on.
+	 * @param seed       The seed from which the seeds of the games are derived.
+	 * @return The aggregated results.
+	 */
+	public static Result run(int width, int height, int numMines, Strategy strategy, long games, int numThreads, long seed) {
+		// Fail early on invalid settings
+		Board.deferred(width, height, numMines, seed);
+		Worker[] workers = new Worker[numThreads];
+		Thread[] threads = new Thread[numThreads];
+		long start = System.nanoTime();
+		for (int t = 0; t < numThreads; ++t) {
+			workers[t] = new Worker(new Board(new byte[width][height], 0), numMines, strategy, seed);
+			long first = t;
+			Worker worker = workers[t];
+			// Big openings recurse deeply in the flood fill
+			threads[t] = new Thread(null, () -> {
+				for (long game = first; game < games; game += numThreads) worker.play(game);
+			}, "monte-carlo-" + t, 1L << 28);
+			threads[t].start();
+		}
+		for (Thread thread : threads) {
+			try {
+				thread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException("Interrupted while playing.", e);
+			}
+		}
+		long nanos = System.nanoTime() - start;
+
+		long wins = 0, moves = 0, clears = 0, tilesRevealed = 0;
+		long[] moveCounts = new long[MOVE_BUCKETS];
+		for (Worker worker : workers) {
+			wins += worker.wins;
+			moves += worker.moves;
+			clears += worker.clears;
+			tilesRevealed += worker.tilesRevealed;
+			for (int i = 0; i < MOVE_BUCKETS; ++i) moveCounts[i] += worker.moveCounts[i];
+		}
+		return new Result(games, wins, moves, clears, tilesRevealed, nanos, moveCounts);
+	}
+
+	/**
+	 * The state of a single thread, reused for all its games.
+	 */
+	static final class Worker {
+		final Board board;
+		final int numMines, maxMoves;
+		final Player player;
+		final long seed;
+		final Random random = new Random();
+		final long[] moveCounts = new long[MOVE_BUCKETS];
+		long wins, moves, clears, tilesRevealed;
+
+		Worker(Board board, int numMines, Strategy strategy, long seed) {
+			this.board = board;
+			this.numMines = numMines;
+			player = strategy.newPlayer(board);
+			this.seed = seed;
+			// Every tile can be flagged, unflagged and cleared at most once each in a sensible game
+			maxMoves = 3 * board.getWidth() * board.getHeight();
+		}
+
+		void play(long game) {
+			long gameSeed = mix(seed + game);
+			board.reset(numMines, gameSeed);
+			random.setSeed(~gameSeed);
+			player.newGame();
+			int n = 0;
+			boolean won = false;
+			while (n < maxMoves) {
+				long move = player.nextMove(random);
+				int before = board.getRemainingTiles();
+				Board.ClearTileResult result = Move.apply(board, move);
+				player.moved(result.dirtyRegion);
+				++n;
+				if (Move.getType(move) != Move.Type.FLAG) {
+					++clears;
+					tilesRevealed += before - board.getRemainingTiles();
+				}
+				if (board.getRemainingTiles() == 0) {
+					won = true;
+					break;
+				}
+				if (result.wasMine) break;
+			}
+			if (won) ++wins;
+			moves += n;
+			++moveCounts[Math.min(n, MOVE_BUCKETS - 1)];
+		}
+	}
+
+	private static long mix(long z) {
+		z = (z ^ z >>> 30) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ z >>> 27) * 0x94d049bb133111ebL;
+		return z ^ z >>> 31;
+	}
+
+	public static void main(String[] args) {
+		long games = 1_000_000;
+		int numThreads = Runtime.getRuntime().availableProcessors(), i = 0;
+		Strategy strategy = SINGLE_POINT;
+		String strategyName = "single-point";
+		for (; i + 1 < args.length && args[i].startsWith("-"); i += 2) {
+			switch (args[i]) {
+				case "-n":
+					games = Long.parseLong(args[i + 1]);
+					break;
+				case "-t":
+					numThreads = Integer.parseInt(args[i + 1]);
+					break;
+				case "-s":
+					strategyName = args[i + 1];
+					strategy = "random".equals(strategyName) ? RANDOM : "single-point".equals(strategyName) ? SINGLE_POINT : null;
+					break;
+				default:
+					strategy = null;
+			}
+		}
+		if (strategy == null || args.length - i != 3) {
+			System.err.println("Usage: MonteCarlo [-n GAMES] [-t THREADS] [-s random|single-point] WIDTH HEIGHT MINES");
+			System.exit(2);
+		}
+		int width = Integer.parseInt(args[i]), height = Integer.parseInt(args[i + 1]), numMines = Integer.parseInt(args[i + 2]);
+
+		Result result = run(width, height, numMines, strategy, games, numThreads, System.nanoTime());
+		System.out.printf("%dx%d with %d mines, %s, %d games on %d threads%n",
+				width, height, numMines, strategyName, result.games, numThreads);
+		System.out.printf("%.0f games/s, win rate %.4f (95%% CI %.4f-%.4f)%n",
+				result.gamesPerSecond(), result.winRate(), result.winRateLower(), result.winRateUpper());
+		System.out.printf("moves per game: mean %.1f, p50 %d, p90 %d, p99 %d; average reveal %.1f tiles%n",
+				result.averageMoves(), result.movesPercentile(0.5), result.movesPercentile(0.9),
+				result.movesPercentile(0.99), result.averageRevealSize());
+	}
+}
@@ -0,0 +1,81 @@
+package minesweeper;
+
+/**
+ * Utilities for player moves packed into a single {@code long}.
+ * <p>
+ * The two most significant bits hold the {@link Type}, followed by 31 bits each
+ * for the x- and y-coordinate. Packed moves can be stored in primitive arrays
+ * and written out without allocating.
+ */
+public final class Move {
+	public enum Type {
+		/**
+		 * Clears a single tile.
+		 */
+		CLEAR,
+		/**
+		 * Toggles the flag on a tile.
+		 */
+		FLAG,
+		/**
+		 * Clears all tiles around an already revealed tile.
+		 */
+		CHORD
+	}
+
+	private static final Type[] TYPES = Type.values();
+	private static final int COORD_BITS = 31;
+	private static final long COORD_MASK = (1L << COORD_BITS) - 1;
+
+	private Move() {}
+
+	public static long pack(Type type, int x, int y) {
+		if (x < 0 || y < 0) throw new IllegalArgumentException("Coordinates must be non-negative.");
+		return (long) type.ordinal() << 2 * COORD_BITS | (long) x << COORD_BITS | y;
+	}
+
+	/**
+	 * Returns whether a packed move has a known type and refers to a tile of a board of the specified size.
+	 */
+	public static boolean isValid(long move, int width, int height) {
+		return move >>> 2 * COORD_BITS < TYPES.length && getX(move) < width && getY(move) < height;
+	}
+
+	public static Type getType(long move) {
+		return TYPES[(int) (move >>> 2 * COORD_BITS)];
+	}
+
+	public static int getX(long move) {
+		return (int) (move >>> COORD_BITS & COORD_MASK);
+	}
+
+	public static int getY(long move) {
+		return (int) (move & COORD_MASK);
+	}
+
+	/**
+	 * Performs the specified move on a board without allocating.
+	 *
+	 * @param board The board to mutate.
+	 * @param move  The packed move.
+	 * @return The result of the move, reused by the next move on the board, see {@link Board#clearTile(int, int)}.
+	 */
+	public static Board.ClearTileResult apply(Board board, long move) {
+		int x = getX(move), y = getY(move);
+		switch (getType(move)) {
+			case CLEAR:
+				return board.clearTile(x, y);
+			case FLAG:
+				board.toggleFlag(x, y);
+				return board.tileResult(x, y);
+			case CHORD:
+				return board.clearNeighbours(x, y);
+			default:
+				throw new AssertionError();
+		}
+	}
+
+	public static String toString(long move) {
+		return getType(move) + "(" + getX(move) + ", " + getY(move) + ')';
+	}
+}
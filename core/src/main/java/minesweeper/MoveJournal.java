@@ -0,0 +1,284 @@
+package minesweeper;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Append-only write-ahead journal of the moves made on a board.
+ * <p>
+ * Moves are handed over through a lock-free ring buffer and written, batched and
+ * fsynced, by a background thread, so recording a move never blocks on I/O. The
+ * background thread applies the moves to a private replica of the board and
+ * periodically compacts the journal by writing the replica as a checkpoint.
+ * After a crash, {@link #recover(Path)} rebuilds the board from the last
+ * checkpoint plus the tail of the journal.
+ * <p>
+ * The directory holds two files. The checkpoint consists of a generation and
+ * the sequence number of the first move not included, followed by the board in
+ * {@link BoardFile} format. The journal consists of the generation and the
+ * sequence number of its first record, followed by records of the packed move
+ * and a checksum. A torn, corrupt or invalid record ends the journal.
+ * <p>
+ * Only a single thread may record moves.
+ */
+public final class MoveJournal implements AutoCloseable {
+	private static final String CHECKPOINT = "checkpoint", CHECKPOINT_TMP = "checkpoint.tmp", JOURNAL = "journal";
+	private static final int HEADER_SIZE = 8 + 8, RECORD_SIZE = 8 + 4;
+	private static final int RING_CAPACITY = 1 << 16;
+	private static final long IDLE_NANOS = 1_000_000;
+	static final long DEFAULT_COMPACT_RECORDS = 1 << 16;
+
+	private final Path dir;
+	private final long compactRecords;
+	private final long generation;
+	private final Board replica;
+	private final FileChannel journal;
+	private final Thread writer;
+
+	private final long[] ring = new long[RING_CAPACITY];
+	/**
+	 * Sequence number of the next move to be consumed by the writer.
+	 */
+	private final AtomicLong head = new AtomicLong();
+	/**
+	 * Sequence number of the next move to be recorded.
+	 */
+	private final AtomicLong tail = new AtomicLong();
+	/**
+	 * Number of moves that are durably stored.
+	 */
+	private volatile long durable;
+	private volatile boolean closed;
+	private volatile Exception failure;
+	private long journalBase;
+
+	/**
+	 * Starts a new journal for the current state of a board.
+	 * <p>
+	 * Replaces any previous journal in the directory once the initial checkpoint
+	 * has been written. The board is copied, but not serialized, on the calling thread.
+	 * Only square boards are supported, as the checkpoints are {@link BoardFile}s.
+	 *
+	 * @param dir   The directory to store the journal in.
+	 * @param board The board whose moves will be recorded.
+	 * @throws IOException If the journal could not be opened.
+	 */
+	public MoveJournal(Path dir, Board board) throws IOException {
+		this(dir, board, DEFAULT_COMPACT_RECORDS);
+	}
+
+	MoveJournal(Path dir, Board board, long compactRecords) throws IOException {
+		if (board.getTopology() != Topology.SQUARE) throw new IllegalArgumentException("Only square boards can be journaled.");
+		this.dir = dir;
+		this.compactRecords = compactRecords;
+		Files.createDirectories(dir);
+		generation = readGeneration(dir) + 1;
+		replica = new Board(board);
+		journal = FileChannel.open(dir.resolve(JOURNAL), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+		writer = new Thread(null, this::run, "move-journal", 16 << 20);
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	private static long readGeneration(Path dir) {
+		try (FileChannel channel = FileChannel.open(dir.resolve(CHECKPOINT), StandardOpenOption.READ)) {
+			return readHeader(channel).getLong(0);
+		} catch (IOException e) {
+			return 0;
+		}
+	}
+
+	/**
+	 * Enqueues a move to be journaled.
+	 * <p>
+	 * Only blocks if the writer has fallen a whole ring buffer behind.
+	 *
+	 * @param move The packed move, see {@link Move}.
+	 * @throws IllegalArgumentException If the move does not refer to a tile of the board.
+	 * @throws UncheckedIOException     If the background writer has failed.
+	 */
+	public void record(long move) {
+		if (!Move.isValid(move, replica.getWidth(), replica.getHeight()))
+			throw new IllegalArgumentException("Invalid move " + move + '.');
+		if (failure != null) throw new UncheckedIOException(new IOException("Journal writer failed.", failure));
+		if (closed) throw new IllegalStateException("Journal is closed.");
+		long t = tail.get();
+		while (t - head.get() == RING_CAPACITY) {
+			if (failure != null) throw new UncheckedIOException(new IOException("Journal writer failed.", failure));
+			Thread.yield();
+		}
+		ring[(int) t & RING_CAPACITY - 1] = move;
+		tail.lazySet(t + 1);
+	}
+
+	/**
+	 * Returns the number of recorded moves that have been durably written.
+	 */
+	public long getDurableCount() {
+		return durable;
+	}
+
+	/**
+	 * Blocks until all moves recorded so far are durable.
+	 */
+	public void sync() throws IOException {
+		for (long target = tail.get(); durable < target; LockSupport.parkNanos(IDLE_NANOS / 10))
+			if (failure != null) throw new IOException("Journal writer failed.", failure);
+	}
+
+	/**
+	 * Writes all pending moves and stops the background writer.
+	 */
+	@Override
+	public void close() throws IOException {
+		closed = true;
+		LockSupport.unpark(writer);
+		try {
+			writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			journal.close();
+		}
+		if (failure != null) throw new IOException("Journal writer failed.", failure);
+	}
+
+	private void run() {
+		try {
+			compact(0);
+			ByteBuffer batch = ByteBuffer.allocateDirect(1024 * RECORD_SIZE);
+			for (long seq = 0; ; ) {
+				boolean stopping = closed;
+				long t = tail.get();
+				if (seq == t) {
+					if (stopping) break;
+					LockSupport.parkNanos(IDLE_NANOS);
+					continue;
+				}
+
+				batch.clear();
+				for (; seq < t && batch.hasRemaining(); ++seq) {
+					long move = ring[(int) seq & RING_CAPACITY - 1];
+					batch.putLong(move).putInt(checksum(move, seq));
+					applyMove(replica, move);
+				}
+				head.lazySet(seq);
+				batch.flip();
+				while (batch.hasRemaining()) journal.write(batch);
+				journal.force(false);
+				durable = seq;
+
+				if (seq - journalBase >= compactRecords) compact(seq);
+			}
+		} catch (IOException | RuntimeException e) {
+			failure = e;
+		}
+	}
+
+	/**
+	 * Writes the replica as a new checkpoint and starts over with an empty journal.
+	 *
+	 * @param seq The sequence number of the next move.
+	 */
+	private void compact(long seq) throws IOException {
+		Path tmp = dir.resolve(CHECKPOINT_TMP);
+		try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			writeHeader(channel, generation, seq);
+			BoardFile.write(replica, channel);
+			channel.force(true);
+		}
+		Files.move(tmp, dir.resolve(CHECKPOINT), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+		// Only now that the checkpoint is durable may the old records go
+		journal.truncate(0);
+		journal.position(0);
+		writeHeader(journal, generation, seq);
+		journal.force(true);
+		journalBase = seq;
+	}
+
+	/**
+	 * Rebuilds a board from the checkpoint and journal in a directory.
+	 *
+	 * @param dir The directory of the journal.
+	 * @return The recovered board, or {@code null} if the directory holds no checkpoint.
+	 * @throws IOException If the checkpoint could not be read.
+	 */
+	public static Board recover(Path dir) throws IOException {
+		Path checkpoint = dir.resolve(CHECKPOINT);
+		if (!Files.exists(checkpoint)) return null;
+		Board board;
+		long generation, seq;
+		try (FileChannel channel = FileChannel.open(checkpoint, StandardOpenOption.READ)) {
+			ByteBuffer header = readHeader(channel);
+			generation = header.getLong();
+			seq = header.getLong();
+			board = BoardFile.read(channel);
+		}
+
+		Path journalPath = dir.resolve(JOURNAL);
+		if (!Files.exists(journalPath)) return board;
+		try (FileChannel channel = FileChannel.open(journalPath, StandardOpenOption.READ)) {
+			ByteBuffer header = readHeader(channel);
+			// A journal of another generation belongs to a checkpoint that was replaced
+			if (header.getLong() != generation) return board;
+			long s = header.getLong();
+			if (s > seq) throw new IOException("Journal is missing moves after the checkpoint.");
+
+			ByteBuffer buf = ByteBuffer.allocate(4096 * RECORD_SIZE);
+			for (boolean eof = false; !eof; buf.compact()) {
+				eof = channel.read(buf) < 0;
+				buf.flip();
+				for (; buf.remaining() >= RECORD_SIZE; ++s) {
+					long move = buf.getLong();
+					if (buf.getInt() != checksum(move, s) || !Move.isValid(move, board.getWidth(), board.getHeight()))
+						return board;
+					if (s >= seq) applyMove(board, move);
+				}
+			}
+			// Anything left over is a torn record
+		} catch (EOFException e) {
+			// Journal header was never written
+		}
+		return board;
+	}
+
+	private static void applyMove(Board board, long move) {
+		try {
+			Move.apply(board, move);
+		} catch (IllegalArgumentException e) {
+			// The move was rejected when it was made as well
+		}
+	}
+
+	static int checksum(long move, long seq) {
+		long h = move + seq * 0x9E3779B97F4A7C15L + 1;
+		h = (h ^ h >>> 33) * 0xff51afd7ed558ccdL;
+		h = (h ^ h >>> 33) * 0xc4ceb9fe1a85ec53L;
+		return (int) (h ^ h >>> 33);
+	}
+
+	private static void writeHeader(FileChannel channel, long generation, long seq) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		header.putLong(generation).putLong(seq).flip();
+		while (header.hasRemaining()) channel.write(header);
+	}
+
+	private static ByteBuffer readHeader(FileChannel channel) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+		while (header.hasRemaining())
+			if (channel.read(header) < 0) throw new EOFException("Truncated header.");
+		header.flip();
+		return header;
+	}
+}
@@ -0,0 +1,94 @@
+package minesweeper;
+
+import java.util.Arrays;
+
+/**
+ * The neighbour offsets of a {@link Topology} on a board of a given size.
+ * <p>
+ * Tiles are divided into classes by whether they are in the first or last
+ * column and row, and by their position modulo the period of the topology.
+ * All tiles of a class have their neighbours at the same offsets, so the edges
+ * are resolved once when the table is built instead of on every access.
+ */
+final class NeighbourTable {
+	private final int lastX, lastY, period, classesPerColumn;
+	/**
+	 * The column and row offsets of the neighbours as consecutive pairs, by class.
+	 */
+	private final int[][] offsets;
+	/**
+	 * The largest number of neighbours of any tile.
+	 */
+	final int maxNeighbours;
+
+	NeighbourTable(Topology topology, int width, int height) {
+		period = topology.getPeriod();
+		if (period < 1) throw new IllegalArgumentException("Invalid period.");
+		lastX = width - 1;
+		lastY = height - 1;
+		classesPerColumn = 4 * period;
+		offsets = new int[classesPerColumn * classesPerColumn][];
+		int max = 0;
+		// Only the tiles close to the edges, where every class occurs, need to be asked
+		for (int x = 0; x < width; x = nextRepresentative(x, width))
+			for (int y = 0; y < height; y = nextRepresentative(y, height)) {
+				int c = classOf(x, y);
+				if (offsets[c] != null) continue;
+				Collector collector = new Collector(x, y, width, height);
+				topology.forEachNeighbour(x, y, width, height, collector);
+				offsets[c] = Arrays.copyOf(collector.pairs, 2 * collector.size);
+				max = Math.max(max, collector.size);
+			}
+		for (int c = 0; c < offsets.length; ++c) if (offsets[c] == null) offsets[c] = new int[0];
+		maxNeighbours = max;
+	}
+
+	private int nextRepresentative(int i, int size) {
+		return i == period && i < size - 1 - period ? size - 1 - period : i + 1;
+	}
+
+	private int classOf(int x, int y) {
+		return ((x % period) << 2 | (x == 0 ? 1 : 0) | (x == lastX ? 2 : 0)) * classesPerColumn
+				+ ((y % period) << 2 | (y == 0 ? 1 : 0) | (y == lastY ? 2 : 0));
+	}
+
+	/**
+	 * Returns the offsets of the neighbours of a tile.
+	 *
+	 * @return The column and row offsets as consecutive pairs. Must not be modified.
+	 */
+	int[] get(int x, int y) {
+		return offsets[classOf(x, y)];
+	}
+
+	/**
+	 * Collects the distinct neighbours of a tile as offsets.
+	 */
+	private static final class Collector implements Board.TileVisitor {
+		private final int x, y, width, height;
+		int[] pairs = new int[16];
+		int size;
+
+		Collector(int x, int y, int width, int height) {
+			this.x = x;
+			this.y = y;
+			this.width = width;
+			this.height = height;
+		}
+
+		@Override
+		public void visit(int nx, int ny) {
+			if (nx < 0 || nx >= width || ny < 0 || ny >= height)
+				throw new IllegalArgumentException("Neighbour is out of bounds.");
+			int dx = nx - x, dy = ny - y;
+			if (Math.abs(dx) > 1 && Math.abs(dx) != width - 1 || Math.abs(dy) > 1 && Math.abs(dy) != height - 1)
+				throw new IllegalArgumentException("Neighbour is not adjacent.");
+			if (dx == 0 && dy == 0) return;
+			for (int i = 0; i < 2 * size; i += 2) if (pairs[i] == dx && pairs[i + 1] == dy) return;
+			if (2 * size == pairs.length) pairs = Arrays.copyOf(pairs, 2 * pairs.length);
+			pairs[2 * size] = dx;
+			pairs[2 * size + 1] = dy;
+			++size;
+		}
+	}
+}
@@ -0,0 +1,253 @@
+package minesweeper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A recorded game that can be replayed against a {@link Board} without any rendering.
+ * <p>
+ * The binary format is, in big-endian order:
+ * <pre>
+ * int     magic ("MSRP")
+ * byte    version
+ * byte    flags, bit 0 set if mines are placed by the first clear
+ * int     width, height, number of mines
+ * long    seed of the board generator
+ * varint  number of moves
+ * moves   varint milliseconds since the previous move,
+ *         varlong (x &lt;&lt; 2 | type), varint y
+ * long    hash of the final board, see {@link #hash(Board)}
+ * </pre>
+ * Versions 1 and 2 placed the mines by retrying random tiles, which is kept
+ * to reproduce their boards. Version 1 also hashes the final board with FNV-1a.
+ */
+public final class Replay {
+	private static final int MAGIC = 'M' << 24 | 'S' << 16 | 'R' << 8 | 'P';
+	private static final byte VERSION = 3;
+	private static final Move.Type[] TYPES = Move.Type.values();
+	private static final int FLAG_DEFERRED = 1;
+	private static final int HEADER_SIZE = 4 + 1 + 1 + 3 * 4 + 8 + Varint.MAX_INT_BYTES;
+	private static final int MAX_MOVE_SIZE = Varint.MAX_INT_BYTES + Varint.MAX_LONG_BYTES + Varint.MAX_INT_BYTES;
+
+	public final int width, height, numMines;
+	/**
+	 * The seed the board was generated with.
+	 */
+	public final long seed;
+	/**
+	 * Whether the board was created by {@link Board#deferred(int, int, int, long)}.
+	 */
+	public final boolean deferred;
+	private int size;
+	/**
+	 * Milliseconds elapsed since the previous move.
+	 */
+	private int[] delays;
+	/**
+	 * The packed moves, see {@link Move}.
+	 */
+	private long[] moves;
+	private long finalHash;
+	/**
+	 * The format version, which determines how the board is generated and the final hash computed.
+	 */
+	private byte version = VERSION;
+	private long lastTimestamp = -1;
+
+	public Replay(int width, int height, int numMines, long seed) {
+		this(width, height, numMines, seed, false);
+	}
+
+	public Replay(int width, int height, int numMines, long seed, boolean deferred) {
+		this(width, height, numMines, seed, deferred, 16);
+	}
+
+	private Replay(int width, int height, int numMines, long seed, boolean deferred, int capacity) {
+		this.width = width;
+		this.height = height;
+		this.numMines = numMines;
+		this.seed = seed;
+		this.deferred = deferred;
+		delays = new int[capacity];
+		moves = new long[capacity];
+	}
+
+	/**
+	 * Generates the board the recording was started on.
+	 *
+	 * @return A new board in its initial state.
+	 */
+	public Board newBoard() {
+		if (version < 3) return legacyBoard();
+		return deferred ? Board.deferred(width, height, numMines, seed)
+				: Board.generate(width, height, numMines, new Random(seed));
+	}
+
+	/**
+	 * Generates the board the recording was started on the way versions 1 and 2 did.
+	 * <p>
+	 * Generated boards retried random tiles until one was not next to a mine.
+	 * Deferred boards retried random tiles until one was free and outside the
+	 * neighbourhood of the first cleared tile, so the recorded moves decide the
+	 * mines, which are then placed up front.
+	 */
+	private Board legacyBoard() {
+		int safeX = -2, safeY = -2;
+		if (deferred) {
+			int i = 0;
+			while (i < size && (Move.getType(moves[i]) != Move.Type.CLEAR
+					|| Move.getX(moves[i]) >= width || Move.getY(moves[i]) >= height)) ++i;
+			// The mines were never placed
+			if (i == size) return Board.deferred(width, height, numMines, seed);
+			safeX = Move.getX(moves[i]);
+			safeY = Move.getY(moves[i]);
+		}
+
+		byte[][] field = new byte[width][height];
+		Random random = new Random(seed);
+		for (int n = numMines; n > 0; ) {
+			int x = random.nextInt(width), y = random.nextInt(height);
+			if (deferred ? (field[x][y] & Board.MINE_BIT) != 0 || Math.abs(x - safeX) <= 1 && Math.abs(y - safeY) <= 1
+					: field[x][y] != 0) continue;
+			field[x][y] |= Board.MINE_BIT;
+			for (int nx = Math.max(x - 1, 0); nx <= Math.min(x + 1, width - 1); ++nx)
+				for (int ny = Math.max(y - 1, 0); ny <= Math.min(y + 1, height - 1); ++ny)
+					if (nx != x || ny != y) ++field[nx][ny];
+			--n;
+		}
+		return new Board(field, width * height - numMines);
+	}
+
+	/**
+	 * Appends a move to the recording.
+	 *
+	 * @param timestamp The time of the move in milliseconds.
+	 * @param move      The packed move.
+	 */
+	public void record(long timestamp, long move) {
+		if (size == moves.length) {
+			delays = Arrays.copyOf(delays, 2 * size);
+			moves = Arrays.copyOf(moves, 2 * size);
+		}
+		delays[size] = lastTimestamp < 0 ? 0 : (int) Math.max(0, Math.min(Integer.MAX_VALUE, timestamp - lastTimestamp));
+		moves[size++] = move;
+		lastTimestamp = timestamp;
+	}
+
+	/**
+	 * Ends the recording by storing the hash of the final board state.
+	 *
+	 * @param board The board after all moves have been performed.
+	 */
+	public void finish(Board board) {
+		finalHash = version >= 2 ? hash(board) : fnvHash(board);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public long getMove(int i) {
+		if (i < 0 || i >= size) throw new IndexOutOfBoundsException();
+		return moves[i];
+	}
+
+	/**
+	 * Returns the number of milliseconds between move {@code i - 1} and {@code i}.
+	 */
+	public int getDelay(int i) {
+		if (i < 0 || i >= size) throw new IndexOutOfBoundsException();
+		return delays[i];
+	}
+
+	public long getFinalHash() {
+		return finalHash;
+	}
+
+	/**
+	 * Returns whether a board matches the final board of the recording.
+	 *
+	 * @param board The board after all moves have been performed.
+	 */
+	public boolean matches(Board board) {
+		return (version >= 2 ? hash(board) : fnvHash(board)) == finalHash;
+	}
+
+	/**
+	 * Performs all recorded moves on the specified board.
+	 *
+	 * @param board The board to play on, as returned by {@link #newBoard()}.
+	 */
+	public void play(Board board) {
+		for (int i = 0; i < size; ++i) Move.apply(board, moves[i]);
+	}
+
+	/**
+	 * Returns the hash of a board stored as the final hash.
+	 *
+	 * @param board The board to hash.
+	 * @return The hash, see {@link Board#longHashCode()}.
+	 */
+	public static long hash(Board board) {
+		return board.longHashCode();
+	}
+
+	/**
+	 * Computes the 64-bit FNV-1a hash of the contents of a board used by version 1.
+	 */
+	private static long fnvHash(Board board) {
+		long h = 0xcbf29ce484222325L;
+		for (int x = 0; x < board.getWidth(); ++x)
+			for (int y = 0; y < board.getHeight(); ++y) {
+				h ^= board.getTile(x, y) & 0xFF;
+				h *= 0x100000001b3L;
+			}
+		return (h ^ board.getRemainingTiles()) * 0x100000001b3L;
+	}
+
+	public void write(Path path) throws IOException {
+		ByteBuffer buf = ByteBuffer.allocate(HEADER_SIZE + size * MAX_MOVE_SIZE + 8);
+		buf.putInt(MAGIC).put(version).put((byte) (deferred ? FLAG_DEFERRED : 0))
+				.putInt(width).putInt(height).putInt(numMines).putLong(seed);
+		Varint.putInt(buf, size);
+		for (int i = 0; i < size; ++i) {
+			long move = moves[i];
+			Varint.putInt(buf, delays[i]);
+			Varint.putLong(buf, (long) Move.getX(move) << 2 | Move.getType(move).ordinal());
+			Varint.putInt(buf, Move.getY(move));
+		}
+		buf.putLong(finalHash);
+		Files.write(path, Arrays.copyOf(buf.array(), buf.position()));
+	}
+
+	public static Replay read(Path path) throws IOException {
+		ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(path));
+		if (buf.remaining() < HEADER_SIZE - Varint.MAX_INT_BYTES || buf.getInt() != MAGIC)
+			throw new IOException("Not a replay file.");
+		byte version = buf.get();
+		if (version < 1 || version > VERSION) throw new IOException("Unsupported replay version " + version + '.');
+		byte flags = buf.get();
+		int width = buf.getInt(), height = buf.getInt(), numMines = buf.getInt();
+		long seed = buf.getLong();
+		try {
+			int size = Varint.getInt(buf);
+			if (size < 0 || size > buf.remaining() / 3) throw new IOException("Corrupt move count.");
+			Replay replay = new Replay(width, height, numMines, seed, (flags & FLAG_DEFERRED) != 0, Math.max(size, 1));
+			for (int i = 0; i < size; ++i) {
+				replay.delays[i] = Varint.getInt(buf);
+				long xType = Varint.getLong(buf);
+				replay.moves[i] = Move.pack(TYPES[(int) (xType & 3)], (int) (xType >>> 2), Varint.getInt(buf));
+			}
+			replay.size = size;
+			replay.finalHash = buf.getLong();
+			replay.version = version;
+			return replay;
+		} catch (RuntimeException e) {
+			throw new IOException("Truncated or corrupt replay file.", e);
+		}
+	}
+}
@@ -0,0 +1,88 @@
+package minesweeper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Headless runner that replays recorded games as fast as possible.
+ * <p>
+ * Usage: {@code ReplayRunner [-n ITERATIONS] FILE...}
+ * <p>
+ * For every file the moves are replayed the given number of times, ignoring the
+ * recorded delays. Board generation is not included in the timings. Exits with a
+ * non-zero status if any final board does not match the recording.
+ */
+public final class ReplayRunner {
+	private ReplayRunner() {}
+
+	public static void main(String[] args) throws IOException {
+		int iterations = 1, i = 0;
+		if (args.length >= 2 && args[0].equals("-n")) {
+			iterations = Integer.parseInt(args[1]);
+			i = 2;
+		}
+		if (i >= args.length) {
+			System.err.println("Usage: ReplayRunner [-n ITERATIONS] FILE...");
+			System.exit(2);
+		}
+
+		boolean allMatched = true;
+		for (; i < args.length; ++i) {
+			Path path = Paths.get(args[i]);
+			Replay replay = Replay.read(path);
+			Result result = run(replay, iterations);
+			System.out.printf("%s: %d moves x %d, %.0f actions/s, %.0f tiles revealed/s, hash %s%n",
+					path, replay.size(), iterations,
+					result.actionsPerSecond(), result.tilesPerSecond(),
+					result.matched ? "OK" : "MISMATCH");
+			allMatched &= result.matched;
+		}
+		if (!allMatched) System.exit(1);
+	}
+
+	public static final class Result {
+		public final long actions, tilesRevealed, nanos;
+		/**
+		 * Whether every run ended on the recorded board state.
+		 */
+		public final boolean matched;
+
+		Result(long actions, long tilesRevealed, long nanos, boolean matched) {
+			this.actions = actions;
+			this.tilesRevealed = tilesRevealed;
+			this.nanos = nanos;
+			this.matched = matched;
+		}
+
+		public double actionsPerSecond() {
+			return nanos == 0 ? 0 : actions * 1e9 / nanos;
+		}
+
+		public double tilesPerSecond() {
+			return nanos == 0 ? 0 : tilesRevealed * 1e9 / nanos;
+		}
+	}
+
+	/**
+	 * Replays a recording on fresh boards.
+	 *
+	 * @param replay     The recording.
+	 * @param iterations The number of times to replay it.
+	 * @return The accumulated timings.
+	 */
+	public static Result run(Replay replay, int iterations) {
+		long nanos = 0, tilesRevealed = 0;
+		boolean matched = true;
+		for (int n = 0; n < iterations; ++n) {
+			Board board = replay.newBoard();
+			int remaining = board.getRemainingTiles();
+			long start = System.nanoTime();
+			replay.play(board);
+			nanos += System.nanoTime() - start;
+			tilesRevealed += remaining - board.getRemainingTiles();
+			matched &= replay.matches(board);
+		}
+		return new Result((long) replay.size() * iterations, tilesRevealed, nanos, matched);
+	}
+}
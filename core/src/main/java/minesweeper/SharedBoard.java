@@ -0,0 +1,199 @@
+package minesweeper;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * A board that many players may clear concurrently.
+ * <p>
+ * Mutations lock the same chunks that versioned reads use, see
+ * {@link Board#enableOptimisticReads()}, so {@link Board#readRegion(Board.Bounds, byte[], int)}
+ * keeps working for spectators. A clear reveals the tiles of one chunk at a
+ * time under its write lock, with a depth-first traversal that sets the tiles
+ * spilling over into other chunks aside on a second stack for later. No thread ever holds more
+ * than one chunk lock, so concurrent fills meeting at chunk boundaries cannot
+ * deadlock, and every tile is revealed, and counted, by exactly one of them.
+ * Fills in disjoint chunks do not contend at all.
+ * <p>
+ * The wrapped board must only be mutated through this class.
+ */
+public final class SharedBoard {
+	private final Board board;
+	private final int width, height;
+	/**
+	 * Number of remaining mine-free squares, copied to the wrapped board after every clear.
+	 */
+	private final AtomicInteger remaining;
+
+	/**
+	 * @param board The board to share, a square board whose mines have been placed.
+	 */
+	public SharedBoard(Board board) {
+		if (!board.isGenerated()) throw new IllegalArgumentException("Mines have not been placed yet.");
+		if (board.getTopology() != Topology.SQUARE) throw new IllegalArgumentException("Only square boards can be shared.");
+		board.enableOptimisticReads();
+		this.board = board;
+		width = board.getWidth();
+		height = board.getHeight();
+		remaining = new AtomicInteger(board.getRemainingTiles());
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public int getRemainingTiles() {
+		return remaining.get();
+	}
+
+	/**
+	 * Returns the shared board, which may be read through its versioned reads.
+	 */
+	public Board getBoard() {
+		return board;
+	}
+
+	/**
+	 * Returns a private copy of the board with an up-to-date count of remaining tiles.
+	 * <p>
+	 * Chunks modified during the copy may be copied in an intermediate state.
+	 */
+	public Board snapshot() {
+		byte[][] field = new byte[width][];
+		byte[] tiles = new byte[height];
+		for (int x = 0; x < width; ++x) {
+			board.readRegion(new Board.Bounds(x, 0, x + 1, height), tiles, 0);
+			field[x] = tiles.clone();
+		}
+		return new Board(field, remaining.get());
+	}
+
+	public void toggleFlag(int x, int y) {
+		if (x < 0 || x >= width || y < 0 || y >= height)
+			throw new IllegalArgumentException("Tile is out of bounds.");
+		StampedLock lock = board.getChunkLock(x, y);
+		long stamp = lock.writeLock();
+		try {
+			int tile = board.getTileUnchecked(x, y);
+			if ((tile & Board.REVEALED_BIT) == 0) {
+				board.setTileUnchecked(x, y, tile ^ Board.FLAG_BIT);
+				board.xorHash(board.tileHash(x, y, Board.FLAG_BIT));
+			}
+		} finally {
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Clears tiles, as {@link Board#clearTiles(Coord...)}, concurrently with other threads.
+	 *
+	 * @param coords The coordinates of the squares to clear.
+	 * @return The region that was revealed by this call and whether a mine was hit.
+	 */
+	public Board.ClearTileResult clearTiles(Coord... coords) {
+		for (Coord c : coords)
+			if (c.x < 0 || c.x >= width || c.y < 0 || c.y >= height)
+				throw new IllegalArgumentException("Specified coordinate is out of bounds.");
+		// As on a board, clicking a mine counts even if it has been revealed before
+		boolean wasMine = false;
+		for (Coord c : coords)
+			wasMine |= (board.getTileUnchecked(c.x, c.y) & (Board.FLAG_BIT | Board.MINE_BIT)) == Board.MINE_BIT;
+		Fill fill = new Fill();
+		for (Coord c : coords) fill.run(c.x, c.y);
+		if (fill.minX <= fill.maxX) board.syncRemaining(remaining);
+		Board.Bounds bounds = fill.minX > fill.maxX ? Board.Bounds.ZERO_SIZE
+				: new Board.Bounds(fill.minX, fill.minY, fill.maxX + 1, fill.maxY + 1);
+		return new Board.ClearTileResult(bounds, wasMine);
+	}
+
+	/**
+	 * The state of a single clear.
+	 */
+	private final class Fill {
+		/**
+		 * Stacks of the packed coordinates of the tiles to visit in the locked chunk, and in other chunks.
+		 */
+		private long[] local = new long[64], pending = new long[64];
+		private int numLocal, numPending;
+		int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+		/**
+		 * The hash changes of the tiles revealed in the locked chunk.
+		 */
+		private long hash;
+
+		void run(int x, int y) {
+			// Like a click, a clear does not go through a flag, but a flood fill does
+			if ((board.getTileUnchecked(x, y) & Board.FLAG_BIT) != 0) return;
+			pushPending(pack(x, y));
+			while (numPending > 0) {
+				long c = pending[--numPending];
+				int chunkX = (int) (c >>> 32) >> Board.CHUNK_SHIFT, chunkY = (int) c >> Board.CHUNK_SHIFT;
+				pushLocal(c);
+				// Take along the other tiles of the chunk that were pushed together
+				while (numPending > 0 && (int) (pending[numPending - 1] >>> 32) >> Board.CHUNK_SHIFT == chunkX
+						&& (int) pending[numPending - 1] >> Board.CHUNK_SHIFT == chunkY)
+					pushLocal(pending[--numPending]);
+
+				StampedLock lock = board.getChunkLock(chunkX << Board.CHUNK_SHIFT, chunkY << Board.CHUNK_SHIFT);
+				int revealed = 0;
+				hash = 0;
+				long stamp = lock.writeLock();
+				try {
+					while (numLocal > 0) revealed += reveal(local[--numLocal], chunkX, chunkY);
+				} finally {
+					lock.unlockWrite(stamp);
+				}
+				remaining.addAndGet(-revealed);
+				if (hash != 0) board.xorHash(hash);
+			}
+		}
+
+		/**
+		 * Reveals a tile in the locked chunk, pushing its neighbours if it is empty.
+		 *
+		 * @return The number of mine-free tiles revealed.
+		 */
+		private int reveal(long c, int chunkX, int chunkY) {
+			int x = (int) (c >>> 32), y = (int) c;
+			int tile = board.getTileUnchecked(x, y);
+			if ((tile & Board.REVEALED_BIT) != 0) return 0;
+			board.setTileUnchecked(x, y, tile | Board.REVEALED_BIT);
+			hash ^= board.tileHash(x, y, Board.REVEALED_BIT);
+			if (x < minX) minX = x;
+			if (x > maxX) maxX = x;
+			if (y < minY) minY = y;
+			if (y > maxY) maxY = y;
+			if ((tile & Board.MINE_BIT) != 0) return 0;
+
+			if ((tile & ~Board.FLAG_BIT) == 0) {
+				for (int nx = Math.max(x - 1, 0), endX = Math.min(x + 1, width - 1); nx <= endX; ++nx)
+					for (int ny = Math.max(y - 1, 0), endY = Math.min(y + 1, height - 1); ny <= endY; ++ny) {
+						// Reading another chunk unlocked may be stale, but is rechecked under its lock
+						if ((board.getTileUnchecked(nx, ny) & Board.REVEALED_BIT) != 0) continue;
+						if (nx >> Board.CHUNK_SHIFT == chunkX && ny >> Board.CHUNK_SHIFT == chunkY) pushLocal(pack(nx, ny));
+						else pushPending(pack(nx, ny));
+					}
+			}
+			return 1;
+		}
+
+		private void pushLocal(long c) {
+			if (numLocal == local.length) local = Arrays.copyOf(local, 2 * numLocal);
+			local[numLocal++] = c;
+		}
+
+		private void pushPending(long c) {
+			if (numPending == pending.length) pending = Arrays.copyOf(pending, 2 * numPending);
+			pending[numPending++] = c;
+		}
+	}
+
+	private static long pack(int x, int y) {
+		return (long) x << 32 | y & 0xFFFFFFFFL;
+	}
+}
@@ -0,0 +1,79 @@
+package minesweeper;
+
+/**
+ * The neighbourhood of the tiles of a board.
+ * <p>
+ * A board asks its topology for the neighbours of only a few representative
+ * tiles and precomputes a table of neighbour offsets from them, see
+ * {@link NeighbourTable}. Neighbours must therefore be at most one column and
+ * one row away, or wrap around to the opposite edge, and the neighbourhoods of
+ * tiles away from the edges may only depend on their position modulo the
+ * {@link #getPeriod() period}.
+ */
+public interface Topology {
+	/**
+	 * Visits the neighbours of a tile.
+	 * <p>
+	 * Neighbours visited more than once, and the tile itself, are ignored.
+	 *
+	 * @param x       The x-coordinate of the tile.
+	 * @param y       The y-coordinate of the tile.
+	 * @param width   The width of the board.
+	 * @param height  The height of the board.
+	 * @param visitor The visitor to call for every neighbour.
+	 */
+	void forEachNeighbour(int x, int y, int width, int height, Board.TileVisitor visitor);
+
+	/**
+	 * Returns the number of columns and rows after which the neighbourhoods of tiles repeat.
+	 */
+	default int getPeriod() {
+		return 1;
+	}
+
+	/**
+	 * The eight surrounding tiles, bounded by the edges of the board.
+	 * <p>
+	 * Boards with this topology use dedicated code paths instead of a table.
+	 */
+	Topology SQUARE = (x, y, width, height, visitor) -> {
+		for (int nx = Math.max(x - 1, 0), endX = Math.min(x + 1, width - 1); nx <= endX; ++nx)
+			for (int ny = Math.max(y - 1, 0), endY = Math.min(y + 1, height - 1); ny <= endY; ++ny)
+				if (nx != x || ny != y) visitor.visit(nx, ny);
+	};
+
+	/**
+	 * The eight surrounding tiles, wrapping around at the edges.
+	 */
+	Topology TORUS = (x, y, width, height, visitor) -> {
+		for (int dx = -1; dx <= 1; ++dx)
+			for (int dy = -1; dy <= 1; ++dy)
+				visitor.visit((x + dx + width) % width, (y + dy + height) % height);
+	};
+
+	/**
+	 * Hexagons in columns, every odd column shifted down by half a tile, bounded by the edges of the board.
+	 * <p>
+	 * Every tile borders the tiles above and below it, and two tiles in each
+	 * of the neighbouring columns: the ones in the same and the previous row
+	 * for even columns, and in the same and the next row for odd columns.
+	 */
+	Topology HEX = new Topology() {
+		@Override
+		public void forEachNeighbour(int x, int y, int width, int height, Board.TileVisitor visitor) {
+			if (y > 0) visitor.visit(x, y - 1);
+			if (y < height - 1) visitor.visit(x, y + 1);
+			int otherY = (x & 1) == 0 ? y - 1 : y + 1;
+			for (int nx = x - 1; nx <= x + 1; nx += 2) {
+				if (nx < 0 || nx >= width) continue;
+				visitor.visit(nx, y);
+				if (otherY >= 0 && otherY < height) visitor.visit(nx, otherY);
+			}
+		}
+
+		@Override
+		public int getPeriod() {
+			return 2;
+		}
+	};
+}
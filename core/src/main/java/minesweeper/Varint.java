@@ -0,0 +1,58 @@
+package minesweeper;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Unsigned LEB128 variable-length integer coding.
+ * <p>
+ * Values are written seven bits at a time, least significant group first,
+ * with the high bit of each byte set if more bytes follow.
+ */
+final class Varint {
+	/**
+	 * The maximum number of bytes of an encoded {@code int}.
+	 */
+	static final int MAX_INT_BYTES = 5;
+	/**
+	 * The maximum number of bytes of an encoded {@code long}.
+	 */
+	static final int MAX_LONG_BYTES = 10;
+
+	private Varint() {}
+
+	static void putInt(ByteBuffer buf, int value) {
+		while ((value & ~0x7F) != 0) {
+			buf.put((byte) (value & 0x7F | 0x80));
+			value >>>= 7;
+		}
+		buf.put((byte) value);
+	}
+
+	static void putLong(ByteBuffer buf, long value) {
+		while ((value & ~0x7FL) != 0) {
+			buf.put((byte) (value & 0x7F | 0x80));
+			value >>>= 7;
+		}
+		buf.put((byte) value);
+	}
+
+	static int getInt(ByteBuffer buf) {
+		int value = 0;
+		for (int shift = 0; shift < 35; shift += 7) {
+			byte b = buf.get();
+			value |= (b & 0x7F) << shift;
+			if (b >= 0) return value;
+		}
+		throw new IllegalArgumentException("Malformed varint.");
+	}
+
+	static long getLong(ByteBuffer buf) {
+		long value = 0;
+		for (int shift = 0; shift < 70; shift += 7) {
+			byte b = buf.get();
+			value |= (long) (b & 0x7F) << shift;
+			if (b >= 0) return value;
+		}
+		throw new IllegalArgumentException("Malformed varint.");
+	}
+}
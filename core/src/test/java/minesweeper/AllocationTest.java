@@ -0,0 +1,114 @@
+package minesweeper;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Checks the hot paths of {@link Board} against explicit budgets of allocated bytes per operation.
+ */
+public class AllocationTest {
+	private static final com.sun.management.ThreadMXBean THREADS =
+			(com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+	private static final int RUNS = 1000;
+	/**
+	 * Allowance for one-off allocations while measuring, far less than one object per run.
+	 */
+	private static final int ONE_OFF_BYTES = 1024;
+
+	/**
+	 * Returns the average number of bytes allocated by the current thread per run of an operation.
+	 */
+	private static double allocatedBytes(Runnable op) {
+		assumeTrue(THREADS.isThreadAllocatedMemorySupported() && THREADS.isThreadAllocatedMemoryEnabled(),
+				"Allocation measurement is unavailable.");
+		// Link lambdas and initialize classes before measuring
+		op.run();
+		long id = Thread.currentThread().getId(), start = THREADS.getThreadAllocatedBytes(id);
+		long overhead = THREADS.getThreadAllocatedBytes(id) - start;
+		start = THREADS.getThreadAllocatedBytes(id);
+		for (int i = 0; i < RUNS; ++i) op.run();
+		return (double) (THREADS.getThreadAllocatedBytes(id) - start - overhead) / RUNS;
+	}
+
+	private static void assertWithinBudget(String name, double budget, double bytes) {
+		assertTrue(bytes <= budget + (double) ONE_OFF_BYTES / RUNS, name + " allocated " + bytes + " bytes per operation, budget " + budget);
+	}
+
+	@Test
+	void testClearTiles() {
+		// A board without mines is one big flood fill with nested fills around the flags
+		Board board = Board.generate(300, 200, 0, new Random(1));
+		for (int i = 0; i < 300; i += 7) board.toggleFlag(i, i % 200);
+		Board.Bounds all = new Board.Bounds(0, 0, 300, 200);
+		// The result is reused, however large the fill
+		assertWithinBudget("clearTile", 0, allocatedBytes(() -> {
+			board.clearTile(150, 100);
+			board.clearBits(all, Board.REVEALED_BIT);
+		}));
+
+		Board mines = Board.generate(300, 200, 12000, new Random(2));
+		assertWithinBudget("clearNeighbours", 0, allocatedBytes(() -> {
+			mines.clearNeighbours(150, 100);
+			mines.clearBits(all, Board.REVEALED_BIT);
+		}));
+	}
+
+	@Test
+	void testToggleFlagAndNeighbours() {
+		Board board = Board.generate(300, 200, 12000, new Random(3));
+		assertWithinBudget("toggleFlag", 0, allocatedBytes(() -> board.toggleFlag(10, 20)));
+
+		int[] count = new int[1];
+		Board.TileVisitor visitor = (x, y) -> count[0] += board.getTileUnchecked(x, y);
+		assertWithinBudget("forEachNeighbour", 0, allocatedBytes(() -> {
+			for (int x = 0; x < 300; x += 13)
+				for (int y = 0; y < 200; y += 11) board.forEachNeighbour(x, y, visitor);
+		}));
+		assertWithinBudget("countNeighbours", 0, allocatedBytes(() -> {
+			for (int x = 0; x < 300; x += 13)
+				for (int y = 0; y < 200; y += 11) count[0] += board.countNeighbours(x, y, Board.MINE_BIT);
+		}));
+	}
+
+	@Test
+	void testGeneration() {
+		Random random = new Random(4);
+		// The field is one array per column plus the array of columns
+		long field = 64 * (16 + 200) + 16 + 8 * 64;
+		assertWithinBudget("generate", field + 512, allocatedBytes(() -> Board.generate(64, 200, 2000, random)));
+
+		Board board = new Board(new byte[64][200], 0);
+		long[] seed = new long[1];
+		// Reusing a board reseeds its generator for placing the mines
+		assertWithinBudget("reset", 0, allocatedBytes(() -> {
+			board.reset(2000, ++seed[0]);
+			board.clearTile(30, 100);
+		}));
+	}
+
+	@Test
+	void testMoveApply() {
+		Board board = Board.generate(300, 200, 6000, new Random(5));
+		Board.Bounds all = new Board.Bounds(0, 0, 300, 200);
+		long[] moves = new long[64];
+		Random random = new Random(6);
+		for (int i = 0; i < moves.length; ++i)
+			moves[i] = Move.pack(Move.Type.values()[random.nextInt(3)], random.nextInt(300), random.nextInt(200));
+		assertWithinBudget("Move.apply", 0, allocatedBytes(() -> {
+			for (long move : moves) Move.apply(board, move);
+			board.clearBits(all, Board.REVEALED_BIT | Board.FLAG_BIT);
+		}));
+	}
+
+	@Test
+	void testMonteCarloGame() {
+		MonteCarlo.Worker worker = new MonteCarlo.Worker(new Board(new byte[30][16], 0), 99, MonteCarlo.SINGLE_POINT, 7);
+		long[] game = {0};
+		assertWithinBudget("MonteCarlo game", 0, allocatedBytes(() -> worker.play(game[0]++)));
+	}
+}
@@ -0,0 +1,51 @@
+package minesweeper;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BitBoardTest {
+	@Test
+	void testMatchesByteBoard() {
+		Board board = Board.generate(67, 45, 300, new Random(2));
+		BitBoard bits = new BitBoard(board);
+		assertEquals(board, bits.toBoard());
+
+		Random random = new Random(3);
+		for (int i = 0; i < 100; ++i) {
+			int x = random.nextInt(67), y = random.nextInt(45);
+			if (random.nextInt(4) == 0) {
+				board.toggleFlag(x, y);
+				bits.toggleFlag(x, y);
+			} else {
+				Coord c = new Coord(x, y);
+				assertEquals(board.clearTiles(c).wasMine, bits.clearTiles(c).wasMine);
+			}
+			assertEquals(board.getRemainingTiles(), bits.getRemainingTiles());
+		}
+		assertEquals(board, bits.toBoard());
+		assertEquals(300, bits.countMines());
+	}
+
+	@Test
+	void testBulkQueries() {
+		Board board = Board.generate(10, 13, 20, new Random(4));
+		BitBoard bits = new BitBoard(board);
+		assertFalse(bits.isWon());
+		for (int x = 0; x < 10; ++x)
+			for (int y = 0; y < 13; ++y)
+				if ((board.getTile(x, y) & Board.MINE_BIT) != 0) bits.toggleFlag(x, y);
+				else bits.clearTiles(new Coord(x, y));
+		assertTrue(bits.isWon());
+		assertTrue(bits.isCorrectlyFlagged());
+		assertEquals(20, bits.countFlags());
+		assertEquals(0, bits.getRemainingTiles());
+
+		bits.revealMines();
+		assertEquals(10 * 13, bits.countRevealed());
+	}
+}
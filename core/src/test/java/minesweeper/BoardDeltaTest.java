@@ -0,0 +1,85 @@
+package minesweeper;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BoardDeltaTest {
+	/**
+	 * Sends the changes to a region to a replica and returns the size of the delta.
+	 */
+	private static int sync(Board board, Board replica, Board.Bounds dirtyRegion) {
+		ByteBuffer buf = ByteBuffer.allocate(BoardDelta.maxEncodedSize(dirtyRegion));
+		BoardDelta.encode(board, replica, dirtyRegion, buf);
+		buf.flip();
+		int size = buf.remaining();
+		assertEquals(dirtyRegion, BoardDelta.apply(replica, buf));
+		assertEquals(0, buf.remaining());
+		return size;
+	}
+
+	@Test
+	void testApplyReproducesBoard() {
+		Board board = Board.generate(60, 40, 120, new Random(7)), replica = new Board(board);
+		Random random = new Random(1);
+		for (int i = 0; i < 50; ++i) {
+			int x = random.nextInt(board.getWidth()), y = random.nextInt(board.getHeight());
+			Board.Bounds dirtyRegion;
+			if (random.nextInt(4) == 0) {
+				board.toggleFlag(x, y);
+				dirtyRegion = new Board.Bounds(x, y, x + 1, y + 1);
+			} else dirtyRegion = board.clearTiles(new Coord(x, y)).dirtyRegion;
+			sync(board, replica, dirtyRegion);
+			assertEquals(board, replica);
+			assertEquals(board.getRemainingTiles(), replica.getRemainingTiles());
+		}
+	}
+
+	@Test
+	void testEmptyRegion() {
+		Board board = Board.generate(8, 8, 10, new Random(3)), replica = new Board(board);
+		sync(board, replica, Board.Bounds.ZERO_SIZE);
+		assertEquals(board, replica);
+	}
+
+	@Test
+	void testOnlyChangesAreEncoded() {
+		Board board = Board.generate(300, 300, 100, new Random(5)), replica = new Board(board);
+		Board.Bounds all = new Board.Bounds(0, 0, 300, 300);
+		board.clearTiles(new Coord(150, 150));
+		sync(board, replica, all);
+
+		// The region, one run in the revealed plane and two in the flag plane
+		board.toggleFlag(0, 0);
+		int size = sync(board, replica, all);
+		assertTrue(size <= 16, "size = " + size);
+		assertEquals(board, replica);
+
+		// Applying a delta again leaves the replica as it is
+		board.toggleFlag(0, 0);
+		ByteBuffer buf = ByteBuffer.allocate(BoardDelta.maxEncodedSize(all));
+		BoardDelta.encode(board, replica, all, buf);
+		for (int i = 0; i < 2; ++i) {
+			buf.flip();
+			BoardDelta.apply(replica, buf);
+			assertEquals(board, replica);
+			buf.position(buf.limit());
+		}
+	}
+
+	@Test
+	void testWorstCaseFitsBound() {
+		// Every other tile changes, alternating between set and cleared flags
+		Board board = Board.generate(40, 40, 0, new Random(6)), replica = new Board(board);
+		for (int x = 0; x < 40; ++x)
+			for (int y = 0; y < 40; y += 2) (((x + y) & 2) == 0 ? board : replica).toggleFlag(x, y);
+		Board.Bounds all = new Board.Bounds(0, 0, 40, 40);
+		int size = sync(board, replica, all);
+		assertTrue(size > 1600, "size = " + size);
+		assertEquals(board, replica);
+	}
+}
@@ -0,0 +1,62 @@
+package minesweeper;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BoardFileTest {
+	private static byte[] write(Board board) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		BoardFile.write(board, Channels.newChannel(out));
+		return out.toByteArray();
+	}
+
+	private static Board read(byte[] bytes) throws IOException {
+		return BoardFile.read(Channels.newChannel(new ByteArrayInputStream(bytes)));
+	}
+
+	@Test
+	void testRoundTripAcrossBands() throws IOException {
+		// Tall enough that the board is split into several bands
+		Board board = Board.generate(3, 1 << 19, 40000, new Random(5));
+		Random random = new Random(6);
+		for (int i = 0; i < 1000; ++i) {
+			int x = random.nextInt(board.getWidth()), y = random.nextInt(board.getHeight());
+			if (i % 3 == 0) board.toggleFlag(x, y);
+			else board.clearTiles(new Coord(x, y));
+		}
+
+		byte[] bytes = write(board);
+		assertTrue(bytes.length < board.getWidth() * board.getHeight() / 4);
+		Board read = read(bytes);
+		assertEquals(board, read);
+		assertEquals(board.getRemainingTiles(), read.getRemainingTiles());
+	}
+
+	@Test
+	void testTruncatedFileRejected() throws IOException {
+		byte[] bytes = write(Board.generate(40, 30, 100, new Random(1)));
+		assertThrows(EOFException.class, () -> read(Arrays.copyOf(bytes, bytes.length - 3)));
+	}
+
+	@Test
+	void testDeferredBoardRoundTrip() throws IOException {
+		Board board = Board.deferred(50, 40, 300, 9);
+		board.toggleFlag(7, 7);
+		Board read = read(write(board));
+		assertEquals(board.getRemainingTiles(), read.getRemainingTiles());
+		board.clearTiles(new Coord(20, 20));
+		read.clearTiles(new Coord(20, 20));
+		assertEquals(board, read);
+	}
+}
@@ -4,12 +4,18 @@ import org.junit.jupiter.api.Test;
 
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static minesweeper.Board.MINE_BIT;
 import static minesweeper.Board.REVEALED_BIT;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class BoardTest {
 	private final Board b = new Board(new byte[][]{
@@ -49,4 +55,131 @@ public class BoardTest {
 		board.clearTiles(new Coord(0, 0));
 		assertEquals(b.getRemainingTiles(), board.getRemainingTiles());
 	}
+
+	@Test
+	void testDeferredFirstClearIsSafe() {
+		Random random = new Random(1);
+		for (int i = 0; i < 50; ++i) {
+			Board board = Board.deferred(9, 9, 72, random.nextLong());
+			assertFalse(board.isGenerated());
+			Coord c = new Coord(random.nextInt(9), random.nextInt(9));
+			assertFalse(board.clearTiles(c).wasMine);
+			assertTrue(board.isGenerated());
+			int mines = 0;
+			for (int x = 0; x < 9; ++x)
+				for (int y = 0; y < 9; ++y) {
+					if ((board.getTile(x, y) & MINE_BIT) == 0) continue;
+					++mines;
+					assertFalse(Math.abs(x - c.x) <= 1 && Math.abs(y - c.y) <= 1);
+				}
+			assertEquals(72, mines);
+		}
+	}
+
+	@Test
+	void testDeferredNeighbourCounts() {
+		Board board = Board.deferred(300, 300, 20000, 5);
+		board.clearTiles(new Coord(150, 150));
+		for (int x = 0; x < board.getWidth(); ++x)
+			for (int y = 0; y < board.getHeight(); ++y) {
+				long mines = board.getNeighbouringTiles(x, y).filter(c -> (board.getTile(c) & MINE_BIT) != 0).count();
+				assertEquals(mines, board.getNeighbouringMineCount(x, y));
+			}
+	}
+
+	@Test
+	void testDeferredCopiesPlaceSameMines() {
+		Board board = Board.deferred(30, 16, 99, 42), copy = new Board(board);
+		board.clearTiles(new Coord(3, 3));
+		copy.clearTiles(new Coord(3, 3));
+		assertEquals(board, copy);
+	}
+
+	@Test
+	void testRegionOperations() {
+		Board board = new Board(b);
+		Board.Bounds region = new Board.Bounds(1, 1, 3, 4);
+		byte[] tiles = new byte[1 + 2 * 3];
+		board.copyRegion(region, tiles, 1);
+		assertArrayEquals(new byte[]{0, 1, 0, 2, 1, 1 | MINE_BIT, 1}, tiles);
+
+		board.setBits(region, REVEALED_BIT);
+		assertEquals(b.getRemainingTiles() - 5, board.getRemainingTiles());
+		board.clearBits(region, REVEALED_BIT);
+		assertEquals(b, board);
+		assertEquals(b.getRemainingTiles(), board.getRemainingTiles());
+
+		assertThrows(IllegalArgumentException.class, () -> board.copyRegion(new Board.Bounds(0, 0, 5, 1), tiles, 0));
+		assertThrows(IllegalArgumentException.class, () -> board.setBits(region, MINE_BIT));
+	}
+
+	@Test
+	void testOptimisticReadsAreConsistent() throws InterruptedException {
+		Board board = new Board(new byte[300][200], 300 * 200);
+		board.enableOptimisticReads();
+		Board.Bounds all = new Board.Bounds(0, 0, 300, 200), part = new Board.Bounds(50, 30, 250, 170);
+		AtomicBoolean done = new AtomicBoolean();
+		AtomicInteger torn = new AtomicInteger(), reads = new AtomicInteger();
+		Thread[] readers = new Thread[2];
+		for (int r = 0; r < readers.length; ++r) {
+			Board.Bounds region = r == 0 ? all : part;
+			readers[r] = new Thread(() -> {
+				byte[] tiles = new byte[300 * 200];
+				while (!done.get()) {
+					board.readRegion(region, tiles, 0);
+					int size = (region.maxX - region.minX) * (region.maxY - region.minY);
+					for (int i = 1; i < size; ++i)
+						if (tiles[i] != tiles[0]) {
+							torn.incrementAndGet();
+							break;
+						}
+					reads.incrementAndGet();
+				}
+			});
+			readers[r].start();
+		}
+		// Every write flips the whole board at once, so a consistent read sees uniform tiles
+		for (int i = 0; i < 2000 || reads.get() < 100; ++i) {
+			board.setBits(all, Board.FLAG_BIT);
+			board.clearBits(all, Board.FLAG_BIT);
+		}
+		done.set(true);
+		for (Thread reader : readers) reader.join();
+		assertEquals(0, torn.get());
+	}
+
+	@Test
+	void testHashConsistentWithEquals() {
+		Board board = Board.deferred(40, 30, 200, 9);
+		Random random = new Random(10);
+		for (int i = 0; i < 200; ++i) {
+			int x = random.nextInt(40), y = random.nextInt(30);
+			Move.apply(board, Move.pack(Move.Type.values()[random.nextInt(3)], x, y));
+			if (i % 50 == 0) board.clearBits(new Board.Bounds(x / 2, y / 2, x, y), REVEALED_BIT);
+			assertEquals(board.computeHash(), board.longHashCode());
+		}
+
+		// Equal boards with separately allocated columns
+		Board copy = new Board(board);
+		copy.toggleFlag(0, 0);
+		copy.toggleFlag(0, 0);
+		assertEquals(board, copy);
+		assertEquals(board.hashCode(), copy.hashCode());
+		assertEquals(board.longHashCode(), new Board(copyField(board), board.getRemainingTiles()).longHashCode());
+	}
+
+	@Test
+	@SuppressWarnings("deprecation")
+	void testFastBoardBuilderHash() {
+		Board board = new FastBoardBuilder(60, 40, 300).build();
+		assertEquals(board.computeHash(), board.longHashCode());
+		assertEquals(board, new Board(copyField(board), board.getRemainingTiles()));
+	}
+
+	private static byte[][] copyField(Board board) {
+		byte[][] field = new byte[board.getWidth()][board.getHeight()];
+		for (int x = 0; x < field.length; ++x)
+			for (int y = 0; y < field[x].length; ++y) field[x][y] = (byte) board.getTile(x, y);
+		return field;
+	}
 }
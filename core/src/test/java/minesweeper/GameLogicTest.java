@@ -0,0 +1,127 @@
+package minesweeper;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GameLogicTest {
+	@Test
+	void testSubmitCoalescesRepeatedInput() {
+		GameLogic logic = new GameLogic(new Board(new byte[10][10], 100), null);
+		logic.submit(Move.Type.CLEAR, 1, 2);
+		logic.submit(Move.Type.CLEAR, 1, 2);
+		assertEquals(1, logic.getNumPendingInputs());
+		logic.submit(Move.Type.FLAG, 3, 4);
+		logic.submit(Move.Type.FLAG, 3, 4);
+		assertEquals(1, logic.getNumPendingInputs());
+		logic.submit(Move.Type.FLAG, 3, 4);
+		assertEquals(2, logic.getNumPendingInputs());
+	}
+
+	@Test
+	void testRevealIsPublishedInSlices() throws InterruptedException {
+		Board board = new Board(new byte[300][300], 300 * 300);
+		GameLogic logic = new GameLogic(board, null);
+		CountDownLatch won = new CountDownLatch(1);
+		int[] updates = new int[1];
+		logic.start(new GameLogic.Listener() {
+			@Override
+			public void onUpdate() {
+				++updates[0];
+			}
+
+			@Override
+			public void onWin() {
+				won.countDown();
+			}
+
+			@Override
+			public void onGameOver() {}
+
+			@Override
+			public void onJournalFailed(RuntimeException cause) {}
+		});
+		try {
+			logic.submit(Move.Type.CLEAR, 150, 150);
+			assertTrue(won.await(10, TimeUnit.SECONDS));
+		} finally {
+			logic.stop();
+		}
+		// Every row of the fill was published on its own
+		assertTrue(updates[0] >= 300);
+
+		int rows = 0;
+		for (Board.Bounds slice; (slice = logic.takeDirtyRegion(300 * 10)) != null; rows += slice.maxY - slice.minY) {
+			assertEquals(0, slice.minX);
+			assertEquals(300, slice.maxX);
+			assertEquals(rows, slice.minY);
+		}
+		assertEquals(300, rows);
+		assertNull(logic.takeDirtyRegion(1));
+	}
+
+	@Test
+	void testKeepsPlayingWhenJournalFails() throws IOException, InterruptedException {
+		Path dir = Files.createTempDirectory("journal");
+		Board board = new Board(new byte[10][10], 100);
+		MoveJournal journal = new MoveJournal(dir, board, 1);
+		try {
+			// Once the first checkpoint is written, block the next one so the writer fails on the first move
+			while (!Files.exists(dir.resolve("checkpoint"))) Thread.sleep(1);
+			Files.createDirectory(dir.resolve("checkpoint.tmp"));
+
+			GameLogic logic = new GameLogic(board, journal);
+			CountDownLatch failed = new CountDownLatch(1), won = new CountDownLatch(1);
+			RuntimeException[] cause = new RuntimeException[1];
+			logic.start(new GameLogic.Listener() {
+				@Override
+				public void onUpdate() {}
+
+				@Override
+				public void onWin() {
+					won.countDown();
+				}
+
+				@Override
+				public void onGameOver() {}
+
+				@Override
+				public void onJournalFailed(RuntimeException e) {
+					cause[0] = e;
+					failed.countDown();
+				}
+			});
+			try {
+				for (int i = 0; failed.getCount() > 0; ++i) {
+					logic.submit(Move.Type.FLAG, i % 2, 0);
+					assertTrue(i < 10_000);
+					Thread.sleep(1);
+				}
+				assertNotNull(cause[0]);
+				logic.submit(Move.Type.CLEAR, 5, 5);
+				assertTrue(won.await(10, TimeUnit.SECONDS));
+			} finally {
+				logic.stop();
+			}
+		} finally {
+			try {
+				journal.close();
+			} catch (IOException expected) {
+				// The writer failed
+			}
+			Files.delete(dir.resolve("checkpoint.tmp"));
+			Files.delete(dir.resolve("checkpoint"));
+			Files.delete(dir.resolve("journal"));
+			Files.delete(dir);
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package minesweeper;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MappedBoardTest {
+	/**
+	 * Critical value of the chi-squared distribution at p = 0.001 with 19 degrees of freedom.
+	 */
+	private static final double CHI2_19 = 43.82;
+
+	private static void delete(Path path) throws IOException {
+		try {
+			Files.delete(path);
+		} catch (IOException e) {
+			// Windows refuses to delete files that are still mapped
+			path.toFile().deleteOnExit();
+		}
+	}
+
+	@Test
+	void testGeneratedAcrossBands() throws IOException {
+		Path path = Files.createTempFile("board", ".msmb"), wholePath = Files.createTempFile("board", ".msmb");
+		try {
+			// Bands of three columns and chunks of 16 rows, so counts must carry across both
+			MappedBoard.generate(path, 70, 130, 2500, new Random(7), 3 * 130, 16);
+			assertEquals(32 + 70 * 130, Files.size(path));
+			MappedBoard view = MappedBoard.open(path);
+			Board board = MappedBoard.load(path);
+			assertEquals(2500, view.getNumMines());
+			assertEquals(70 * 130 - 2500, board.getRemainingTiles());
+
+			int mines = 0;
+			for (int x = 0; x < 70; ++x)
+				for (int y = 0; y < 130; ++y) {
+					assertEquals(board.getTile(x, y), view.getTile(x, y));
+					if ((view.getTile(x, y) & Board.MINE_BIT) != 0) ++mines;
+					int expected = (int) board.getNeighbouringTiles(x, y).filter(c -> (board.getTile(c) & Board.MINE_BIT) != 0).count();
+					assertEquals(expected, view.getNeighbouringMineCount(x, y));
+				}
+			assertEquals(2500, mines);
+			assertEquals(board.computeHash(), board.longHashCode());
+
+			// Columns counted whole reuse the previous ones instead of reading them back
+			MappedBoard.generate(wholePath, 70, 130, 2500, new Random(7), 3 * 130, 130);
+			assertEquals(board, MappedBoard.load(wholePath));
+		} finally {
+			delete(path);
+			delete(wholePath);
+		}
+	}
+
+	@Test
+	void testTilesAreUniform() {
+		// 7 of 20 samples the mines, 14 of 20 the free tiles
+		for (int numMines : new int[]{7, 14}) {
+			int trials = 20000;
+			int[] counts = new int[20];
+			Random random = new Random(numMines);
+			ByteBuffer tiles = ByteBuffer.allocate(counts.length);
+			for (int i = 0; i < trials; ++i) {
+				MappedBoard.MineSampler sampler = new MappedBoard.MineSampler(counts.length, numMines, random);
+				// Fill in two runs, as for consecutive columns
+				Arrays.fill(tiles.array(), (byte) 0);
+				sampler.fill(tiles, 0, 0, 8);
+				sampler.fill(tiles, 8, 8, 12);
+				int mines = 0;
+				for (int j = 0; j < counts.length; ++j)
+					if ((tiles.get(j) & Board.MINE_BIT) != 0) {
+						++counts[j];
+						++mines;
+					}
+				assertEquals(numMines, mines);
+			}
+
+			double chi2 = 0, expected = (double) trials * numMines / counts.length;
+			for (int count : counts) chi2 += (count - expected) * (count - expected) / expected;
+			assertTrue(chi2 < CHI2_19, "chi2 = " + chi2);
+		}
+	}
+}
@@ -0,0 +1,78 @@
+package minesweeper;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MineSamplingTest {
+	/**
+	 * Critical values of the chi-squared distribution at p = 0.001 by degrees of freedom.
+	 */
+	private static final double CHI2_14 = 36.12, CHI2_15 = 37.70;
+
+	@Test
+	void testSubsetsAreUniform() {
+		// 2 of 6 exercises Floyd's algorithm, 4 of 6 the sampling of free tiles
+		for (int numMines : new int[]{2, 4}) {
+			int[] counts = new int[1 << 6];
+			Random random = new Random(numMines);
+			int trials = 30000;
+			for (int i = 0; i < trials; ++i) ++counts[mask(Board.generate(3, 2, numMines, random))];
+
+			double chi2 = 0, expected = trials / 15.0;
+			for (int mask = 0; mask < counts.length; ++mask) {
+				if (Integer.bitCount(mask) != numMines) assertEquals(0, counts[mask]);
+				else chi2 += (counts[mask] - expected) * (counts[mask] - expected) / expected;
+			}
+			assertTrue(chi2 < CHI2_14, "chi2 = " + chi2);
+		}
+	}
+
+	@Test
+	void testDeferredTilesAreUniformOutsideSafeArea() {
+		int trials = 20000, numMines = 11;
+		int[] counts = new int[5 * 5];
+		for (int i = 0; i < trials; ++i) {
+			Board board = Board.deferred(5, 5, numMines, i);
+			board.clearTiles(new Coord(1, 3));
+			for (int x = 0; x < 5; ++x)
+				for (int y = 0; y < 5; ++y)
+					if ((board.getTile(x, y) & Board.MINE_BIT) != 0) ++counts[x * 5 + y];
+		}
+
+		double chi2 = 0, expected = (double) trials * numMines / (25 - 9);
+		for (int x = 0; x < 5; ++x)
+			for (int y = 0; y < 5; ++y) {
+				int count = counts[x * 5 + y];
+				if (Math.abs(x - 1) <= 1 && Math.abs(y - 3) <= 1) assertEquals(0, count);
+				else chi2 += (count - expected) * (count - expected) / expected;
+			}
+		assertTrue(chi2 < CHI2_15, "chi2 = " + chi2);
+	}
+
+	@Test
+	void testDenseBoardNeighbourCounts() {
+		Board board = Board.generate(50, 40, 1800, new Random(3));
+		int mines = 0;
+		for (int x = 0; x < 50; ++x)
+			for (int y = 0; y < 40; ++y) {
+				if ((board.getTile(x, y) & Board.MINE_BIT) != 0) ++mines;
+				int expected = (int) board.getNeighbouringTiles(x, y).filter(c -> (board.getTile(c) & Board.MINE_BIT) != 0).count();
+				assertEquals(expected, board.getNeighbouringMineCount(x, y));
+			}
+		assertEquals(1800, mines);
+		assertEquals(50 * 40 - 1800, board.getRemainingTiles());
+		assertEquals(board.computeHash(), board.longHashCode());
+	}
+
+	private static int mask(Board board) {
+		int mask = 0;
+		for (int x = 0; x < board.getWidth(); ++x)
+			for (int y = 0; y < board.getHeight(); ++y)
+				if ((board.getTile(x, y) & Board.MINE_BIT) != 0) mask |= 1 << x * board.getHeight() + y;
+		return mask;
+	}
+}
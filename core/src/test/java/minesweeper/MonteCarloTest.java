@@ -0,0 +1,21 @@
+package minesweeper;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MonteCarloTest {
+	@Test
+	void testResultsIndependentOfThreads() {
+		MonteCarlo.Result single = MonteCarlo.run(9, 9, 10, MonteCarlo.SINGLE_POINT, 300, 1, 42),
+				multi = MonteCarlo.run(9, 9, 10, MonteCarlo.SINGLE_POINT, 300, 3, 42);
+		assertEquals(single.wins, multi.wins);
+		assertEquals(single.moves, multi.moves);
+		assertEquals(single.tilesRevealed, multi.tilesRevealed);
+
+		assertTrue(single.wins > 0 && single.wins < single.games);
+		assertTrue(single.winRateLower() < single.winRate() && single.winRate() < single.winRateUpper());
+		assertTrue(single.averageRevealSize() > 1);
+	}
+}
@@ -0,0 +1,116 @@
+package minesweeper;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class MoveJournalTest {
+	private static void play(Board board, MoveJournal journal, Random random, int numMoves) {
+		for (int i = 0; i < numMoves; ++i) {
+			int x = random.nextInt(board.getWidth()), y = random.nextInt(board.getHeight());
+			long move = Move.pack(random.nextInt(3) == 0 ? Move.Type.FLAG : Move.Type.CLEAR, x, y);
+			Move.apply(board, move);
+			journal.record(move);
+		}
+	}
+
+	private static void assertRecovers(Board expected, Path dir) throws IOException {
+		Board recovered = MoveJournal.recover(dir);
+		assertEquals(expected, recovered);
+		assertEquals(expected.getRemainingTiles(), recovered.getRemainingTiles());
+	}
+
+	private static void delete(Path dir) throws IOException {
+		try (Stream<Path> files = Files.list(dir)) {
+			for (Path file : (Iterable<Path>) files::iterator) Files.delete(file);
+		}
+		Files.delete(dir);
+	}
+
+	@Test
+	void testRecoverAfterClose() throws IOException {
+		Path dir = Files.createTempDirectory("journal");
+		try {
+			Board board = Board.generate(40, 30, 150, new Random(1));
+			try (MoveJournal journal = new MoveJournal(dir, board)) {
+				play(board, journal, new Random(2), 200);
+			}
+			assertRecovers(board, dir);
+		} finally {
+			delete(dir);
+		}
+	}
+
+	@Test
+	void testRecoverAcrossCompactionsAndTornTail() throws IOException {
+		Path dir = Files.createTempDirectory("journal");
+		try {
+			Board board = Board.generate(40, 30, 150, new Random(3));
+			MoveJournal journal = new MoveJournal(dir, board, 64);
+			play(board, journal, new Random(4), 1000);
+			journal.sync();
+			assertEquals(1000, journal.getDurableCount());
+			journal.close();
+			// Simulate a crash in the middle of appending a record
+			Files.write(dir.resolve("journal"), new byte[]{1, 2, 3, 4, 5}, StandardOpenOption.APPEND);
+			assertRecovers(board, dir);
+
+			// A new journal for the recovered board supersedes the old one
+			board = MoveJournal.recover(dir);
+			try (MoveJournal next = new MoveJournal(dir, board)) {
+				play(board, next, new Random(5), 100);
+			}
+			assertRecovers(board, dir);
+		} finally {
+			delete(dir);
+		}
+	}
+
+	@Test
+	void testInvalidMoves() throws IOException {
+		Path dir = Files.createTempDirectory("journal");
+		try {
+			Board board = Board.generate(40, 30, 150, new Random(6));
+			try (MoveJournal journal = new MoveJournal(dir, board)) {
+				play(board, journal, new Random(7), 100);
+				assertThrows(IllegalArgumentException.class, () -> journal.record(Move.pack(Move.Type.CLEAR, 40, 0)));
+				assertThrows(IllegalArgumentException.class, () -> journal.record(3L << 62));
+			}
+			// A checksummed record that is out of bounds ends the journal like a corrupt one
+			int hidden = 0;
+			while ((board.getTile(hidden / 30, hidden % 30) & (Board.REVEALED_BIT | Board.FLAG_BIT)) != 0) ++hidden;
+			long invalid = Move.pack(Move.Type.CLEAR, 0, 30), valid = Move.pack(Move.Type.FLAG, hidden / 30, hidden % 30);
+			ByteBuffer records = ByteBuffer.allocate(2 * (8 + 4));
+			records.putLong(invalid).putInt(MoveJournal.checksum(invalid, 100));
+			records.putLong(valid).putInt(MoveJournal.checksum(valid, 101));
+			Files.write(dir.resolve("journal"), records.array(), StandardOpenOption.APPEND);
+			assertRecovers(board, dir);
+		} finally {
+			delete(dir);
+		}
+	}
+
+	@Test
+	void testRejectsNonSquareBoards() throws IOException {
+		Path dir = Files.createTempDirectory("journal");
+		try {
+			// Checkpoints could not be written, so fail before touching the directory
+			Path journalDir = dir.resolve("torus");
+			Board board = Board.generate(40, 30, 150, new Random(5), Topology.TORUS);
+			assertThrows(IllegalArgumentException.class, () -> new MoveJournal(journalDir, board));
+			assertFalse(Files.exists(journalDir));
+		} finally {
+			delete(dir);
+		}
+	}
+}
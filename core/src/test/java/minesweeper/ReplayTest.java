@@ -0,0 +1,93 @@
+package minesweeper;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ReplayTest {
+	private static Replay recordGame() {
+		Replay replay = new Replay(30, 16, 50, 42);
+		Board board = replay.newBoard();
+		long[] moves = {
+				Move.pack(Move.Type.FLAG, 3, 4),
+				Move.pack(Move.Type.CLEAR, 10, 8),
+				Move.pack(Move.Type.FLAG, 3, 4),
+				Move.pack(Move.Type.CLEAR, 29, 15),
+				Move.pack(Move.Type.CHORD, 10, 8),
+		};
+		for (int i = 0; i < moves.length; ++i) {
+			replay.record(1000 + 250 * i, moves[i]);
+			Move.apply(board, moves[i]);
+		}
+		replay.finish(board);
+		return replay;
+	}
+
+	@Test
+	void testMovePacking() {
+		long move = Move.pack(Move.Type.CHORD, 9999, 123456);
+		assertEquals(Move.Type.CHORD, Move.getType(move));
+		assertEquals(9999, Move.getX(move));
+		assertEquals(123456, Move.getY(move));
+	}
+
+	@Test
+	void testWriteReadRoundTrip() throws IOException {
+		Replay replay = recordGame();
+		Path path = Files.createTempFile("replay", ".msrp");
+		try {
+			replay.write(path);
+			Replay read = Replay.read(path);
+			assertEquals(replay.seed, read.seed);
+			assertEquals(replay.size(), read.size());
+			for (int i = 0; i < replay.size(); ++i) {
+				assertEquals(replay.getMove(i), read.getMove(i));
+				assertEquals(replay.getDelay(i), read.getDelay(i));
+			}
+			assertEquals(replay.getFinalHash(), read.getFinalHash());
+		} finally {
+			Files.delete(path);
+		}
+	}
+
+	@Test
+	void testReplayReproducesFinalBoard() {
+		ReplayRunner.Result result = ReplayRunner.run(recordGame(), 3);
+		assertTrue(result.matched);
+		assertEquals(15, result.actions);
+	}
+
+	@Test
+	void testReadsOlderVersions() throws IOException {
+		// Written by versions 1 and 2, plain and deferred, on a 9x9 board with 10 mines
+		String[] files = {
+				"4d535250010000000009000000090000000a0000000000000007040001006410046420006400085a2d21800151b7a2",
+				"4d535250010100000009000000090000000a000000000000000704000100641004642000640008f5ae0ffb219bcf8e",
+				"4d535250020000000009000000090000000a00000000000000070400010064100464200064000895ca0c8d53709d1e",
+				"4d535250020100000009000000090000000a000000000000000704000100641004642000640008d951fdf791ba4d4a",
+		};
+		Path path = Files.createTempFile("replay", ".msrp");
+		try {
+			for (String file : files) {
+				byte[] bytes = new byte[file.length() / 2];
+				for (int i = 0; i < bytes.length; ++i) bytes[i] = (byte) Integer.parseInt(file.substring(2 * i, 2 * i + 2), 16);
+				Files.write(path, bytes);
+				Replay replay = Replay.read(path);
+				assertEquals(4, replay.size());
+				assertTrue(ReplayRunner.run(replay, 1).matched, file);
+
+				// Rewriting keeps the version, as the board could not be reproduced otherwise
+				replay.write(path);
+				assertArrayEquals(bytes, Files.readAllBytes(path));
+			}
+		} finally {
+			Files.delete(path);
+		}
+	}
+}
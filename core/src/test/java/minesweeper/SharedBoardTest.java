@@ -0,0 +1,77 @@
+package minesweeper;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class SharedBoardTest {
+	@Test
+	void testClearMatchesSingleWriter() {
+		Board board = Board.generate(200, 150, 600, new Random(4));
+		Board expected = new Board(board);
+		SharedBoard shared = new SharedBoard(new Board(board));
+		Random random = new Random(5);
+		for (int i = 0; i < 20; ++i) {
+			Coord c = new Coord(random.nextInt(200), random.nextInt(150));
+			Board.ClearTileResult expectedResult = expected.clearTiles(c), result = shared.clearTiles(c);
+			assertEquals(expectedResult.wasMine, result.wasMine);
+		}
+		assertEquals(expected, shared.snapshot());
+		assertEquals(expected.getRemainingTiles(), shared.getRemainingTiles());
+		assertEquals(expected.getRemainingTiles(), shared.getBoard().getRemainingTiles());
+		assertEquals(expected.longHashCode(), shared.getBoard().longHashCode());
+	}
+
+	@Test
+	void testClickingMinesMatchesBoard() {
+		Board board = Board.generate(40, 30, 200, new Random(7));
+		Board expected = new Board(board);
+		SharedBoard shared = new SharedBoard(new Board(board));
+		List<Coord> mines = new ArrayList<>();
+		for (int x = 0; x < 40; ++x)
+			for (int y = 0; y < 30; ++y)
+				if ((board.getTile(x, y) & Board.MINE_BIT) != 0) mines.add(new Coord(x, y));
+
+		Coord flagged = mines.get(0), mine = mines.get(1);
+		expected.toggleFlag(flagged.x, flagged.y);
+		shared.toggleFlag(flagged.x, flagged.y);
+		// A flagged mine, a hidden one, the same one again once revealed, and both at once
+		Coord[][] moves = {{flagged}, {mine}, {mine}, {flagged, mine}};
+		for (Coord[] coords : moves) {
+			Board.ClearTileResult expectedResult = expected.clearTiles(coords), result = shared.clearTiles(coords);
+			assertEquals(expectedResult.wasMine, result.wasMine);
+			assertEquals(expectedResult.dirtyRegion, result.dirtyRegion);
+		}
+		assertEquals(expected, shared.snapshot());
+		assertEquals(expected.getRemainingTiles(), shared.getBoard().getRemainingTiles());
+	}
+
+	@Test
+	void testConcurrentWritersRevealEveryTileOnce() throws InterruptedException {
+		Board board = Board.generate(300, 300, 1500, new Random(6));
+		SharedBoard shared = new SharedBoard(board);
+		List<Coord> safe = new ArrayList<>();
+		for (int x = 0; x < 300; ++x)
+			for (int y = 0; y < 300; ++y)
+				if ((board.getTile(x, y) & Board.MINE_BIT) == 0) safe.add(new Coord(x, y));
+
+		Thread[] writers = new Thread[4];
+		for (int i = 0; i < writers.length; ++i) {
+			List<Coord> coords = new ArrayList<>(safe);
+			Collections.shuffle(coords, new Random(i));
+			writers[i] = new Thread(() -> coords.forEach(shared::clearTiles));
+			writers[i].start();
+		}
+		for (Thread writer : writers) writer.join();
+
+		assertEquals(0, shared.getRemainingTiles());
+		assertEquals(0, board.getRemainingTiles());
+		Board snapshot = shared.snapshot();
+		for (Coord c : safe) assertEquals(Board.REVEALED_BIT, snapshot.getTile(c) & Board.REVEALED_BIT);
+	}
+}
@@ -0,0 +1,131 @@
+package minesweeper;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TopologyTest {
+	private static void assertSameTiles(Board expected, Board actual) {
+		for (int x = 0; x < expected.getWidth(); ++x)
+			for (int y = 0; y < expected.getHeight(); ++y)
+				assertEquals(expected.getTile(x, y), actual.getTile(x, y), "Tile (" + x + ", " + y + ")");
+		assertEquals(expected.getRemainingTiles(), actual.getRemainingTiles());
+	}
+
+	/**
+	 * Checks the neighbouring mine counts against the neighbours reported by the topology.
+	 */
+	private static void assertCountsMatchTopology(Board board) {
+		int width = board.getWidth(), height = board.getHeight();
+		for (int x = 0; x < width; ++x)
+			for (int y = 0; y < height; ++y) {
+				Set<Coord> neighbours = new HashSet<>();
+				int cx = x, cy = y;
+				board.getTopology().forEachNeighbour(x, y, width, height, (nx, ny) -> {
+					if (nx != cx || ny != cy) neighbours.add(new Coord(nx, ny));
+				});
+				long mines = neighbours.stream().filter(c -> (board.getTile(c) & Board.MINE_BIT) != 0).count();
+				assertEquals(mines, board.getNeighbouringMineCount(x, y));
+				assertEquals(mines, board.countNeighbours(x, y, Board.MINE_BIT));
+			}
+	}
+
+	@Test
+	void testTableDrivenSquareMatchesFastPath() {
+		// A distinct instance with the same neighbourhood takes the table-driven paths
+		Topology tableSquare = Topology.SQUARE::forEachNeighbour;
+		Board fast = Board.generate(120, 90, 1000, new Random(1)),
+				table = Board.generate(120, 90, 1000, new Random(1), tableSquare);
+		assertSameTiles(fast, table);
+
+		Random random = new Random(2);
+		for (int i = 0; i < 200; ++i) {
+			int x = random.nextInt(120), y = random.nextInt(90);
+			if (i % 5 == 0) {
+				fast.toggleFlag(x, y);
+				table.toggleFlag(x, y);
+				continue;
+			}
+			Board.ClearTileResult expected = i % 7 == 0 ? fast.clearNeighbours(x, y) : fast.clearTiles(new Coord(x, y)),
+					actual = i % 7 == 0 ? table.clearNeighbours(x, y) : table.clearTiles(new Coord(x, y));
+			assertEquals(expected.wasMine, actual.wasMine);
+			assertEquals(expected.dirtyRegion, actual.dirtyRegion);
+		}
+		assertSameTiles(fast, table);
+		assertEquals(fast.longHashCode(), table.longHashCode());
+	}
+
+	@Test
+	void testTorusWrapsAround() {
+		Board board = Board.generate(40, 30, 200, new Random(3), Topology.TORUS);
+		assertCountsMatchTopology(board);
+		// Corners border the opposite corners
+		assertEquals(8, board.getNeighbouringTiles(0, 0).count());
+		assertTrue(board.getNeighbouringTiles(0, 0).anyMatch(c -> c.x == 39 && c.y == 29));
+
+		// Without mines the fill reaches every tile across the edges
+		Board empty = Board.generate(40, 30, 0, new Random(4), Topology.TORUS);
+		Board.ClearTileResult result = empty.clearTiles(new Coord(0, 0));
+		assertEquals(0, empty.getRemainingTiles());
+		assertEquals(new Board.Bounds(0, 0, 40, 30), result.dirtyRegion);
+		assertEquals(empty.computeHash(), empty.longHashCode());
+	}
+
+	@Test
+	void testTorusFillPublishesProgress() {
+		Board board = Board.generate(200, 150, 300, new Random(7), Topology.TORUS);
+		board.enableOptimisticReads();
+		List<Board.Bounds> regions = new ArrayList<>();
+		board.setRevealListener((minX, minY, maxX, maxY) -> {
+			regions.add(new Board.Bounds(minX, minY, maxX, maxY));
+			// Published tiles are visible to readers right away
+			for (int x = minX; x < maxX; x += Board.CHUNK_SIZE)
+				for (int y = minY; y < maxY; y += Board.CHUNK_SIZE)
+					assertFalse(board.getChunkLock(x, y).isWriteLocked());
+		});
+		int start = 0;
+		while (board.getTile(start / 150, start % 150) != 0) ++start;
+		Board.Bounds dirty = board.clearTile(start / 150, start % 150).dirtyRegion;
+		assertTrue(regions.size() > 1);
+
+		for (int x = 0; x < 200; ++x)
+			for (int y = 0; y < 150; ++y) {
+				if ((board.getTile(x, y) & Board.REVEALED_BIT) == 0) continue;
+				int cx = x, cy = y;
+				assertTrue(regions.stream().anyMatch(r -> r.minX <= cx && cx < r.maxX && r.minY <= cy && cy < r.maxY),
+						"(" + x + ", " + y + ") was not reported");
+			}
+		for (Board.Bounds r : regions)
+			assertTrue(dirty.minX <= r.minX && r.maxX <= dirty.maxX && dirty.minY <= r.minY && r.maxY <= dirty.maxY);
+	}
+
+	@Test
+	void testHexNeighbourhood() {
+		Board board = Board.generate(31, 25, 150, new Random(5), Topology.HEX);
+		assertCountsMatchTopology(board);
+		assertEquals(6, board.getNeighbouringTiles(10, 10).count());
+		assertEquals(6, board.getNeighbouringTiles(11, 10).count());
+		// Adjacency is symmetric
+		for (int x = 0; x < 31; ++x)
+			for (int y = 0; y < 25; ++y) {
+				int cx = x, cy = y;
+				board.forEachNeighbour(x, y, (nx, ny) -> assertTrue(board.getNeighbouringTiles(nx, ny)
+						.anyMatch(c -> c.x == cx && c.y == cy), "(" + cx + ", " + cy + ") - (" + nx + ", " + ny + ")"));
+			}
+
+		// The first clear of a deferred board is safe within the hexagonal neighbourhood
+		Board deferred = Board.deferred(31, 25, 700, 6, Topology.HEX);
+		deferred.clearTiles(new Coord(0, 12));
+		assertEquals(0, deferred.getTile(0, 12) & Board.MINE_BIT);
+		deferred.forEachNeighbour(0, 12, (x, y) -> assertEquals(0, deferred.getTile(x, y) & Board.MINE_BIT));
+		assertCountsMatchTopology(deferred);
+	}
+}
@@ -0,0 +1,213 @@
+package minesweeper.server;
+
+import minesweeper.Board;
+import minesweeper.Move;
+
+import java.io.IOException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A single thread multiplexing a set of connections and the games they own.
+ * <p>
+ * Every game belongs to exactly one connection, and every connection to exactly
+ * one loop, so each {@link Board} only ever has a single writer and needs no
+ * synchronization.
+ */
+final class EventLoop implements Runnable {
+	private final Selector selector;
+	/**
+	 * Accepted connections waiting to be registered with the selector.
+	 */
+	private final Queue<SocketChannel> pending = new ConcurrentLinkedQueue<>();
+
+	EventLoop() throws IOException {
+		selector = Selector.open();
+	}
+
+	/**
+	 * Hands over a newly accepted connection to this loop.
+	 * <p>
+	 * May be called from any thread.
+	 */
+	void register(SocketChannel channel) {
+		pending.add(channel);
+		selector.wakeup();
+	}
+
+	void close() throws IOException {
+		selector.close();
+	}
+
+	@Override
+	public void run() {
+		try {
+			while (!Thread.currentThread().isInterrupted()) {
+				selector.select();
+				for (SocketChannel channel; (channel = pending.poll()) != null; ) {
+					try {
+						channel.configureBlocking(false);
+						channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+						channel.register(selector, SelectionKey.OP_READ, new Connection(channel));
+					} catch (IOException e) {
+						channel.close();
+					}
+				}
+
+				for (Iterator<SelectionKey> it = selector.selectedKeys().iterator(); it.hasNext(); ) {
+					SelectionKey key = it.next();
+					it.remove();
+					Connection connection = (Connection) key.attachment();
+					try {
+						if (key.isReadable()) connection.read();
+						if (key.isValid() && key.isWritable()) connection.write();
+						if (key.isValid())
+							key.interestOps(connection.hasPendingOutput() ? SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+					} catch (IOException e) {
+						key.cancel();
+						connection.channel.close();
+					}
+				}
+			}
+		} catch (IOException | ClosedSelectorException e) {
+			// Shutting down
+		}
+	}
+
+	private static final class Connection {
+		final SocketChannel channel;
+		final ByteBuffer in = ByteBuffer.allocate(64 * 1024), out = ByteBuffer.allocate(64 * 1024);
+		/**
+		 * The games of this connection indexed by id, with {@code null} for free ids.
+		 */
+		Board[] games = new Board[16];
+		/**
+		 * Stack of ids that have been released and can be reused.
+		 */
+		int[] freeIds = new int[16];
+		int numFreeIds, nextId;
+
+		Connection(SocketChannel channel) {
+			this.channel = channel;
+		}
+
+		boolean hasPendingOutput() {
+			return out.position() > 0;
+		}
+
+		void read() throws IOException {
+			if (channel.read(in) < 0) throw new IOException("Connection closed by peer.");
+			process();
+		}
+
+		void write() throws IOException {
+			out.flip();
+			channel.write(out);
+			out.compact();
+			// Continue with requests that were held back by a full output buffer
+			process();
+		}
+
+		/**
+		 * Handles all complete requests in the input buffer.
+		 * <p>
+		 * Stops early when the output buffer is full, leaving the remaining
+		 * requests buffered until the client has read some responses.
+		 */
+		private void process() throws IOException {
+			in.flip();
+			try {
+				while (in.hasRemaining()) {
+					int size = Protocol.requestSize(in.get(in.position()));
+					if (size < 0) throw new IOException("Unknown opcode.");
+					if (in.remaining() < size || out.remaining() < Protocol.RESPONSE_SIZE) break;
+					handle(in.get());
+				}
+			} finally {
+				in.compact();
+			}
+			if (hasPendingOutput()) {
+				out.flip();
+				channel.write(out);
+				out.compact();
+			}
+		}
+
+		private void handle(byte opcode) {
+			switch (opcode) {
+				case Protocol.NEW_GAME: {
+					int width = in.getInt(), height = in.getInt(), numMines = in.getInt();
+					long seed = in.getLong();
+					if (width <= 0 || height <= 0 || (long) width * height > Protocol.MAX_TILES
+							|| numMines < 0 || numMines > width * height - Math.min(width, 3) * Math.min(height, 3)) {
+						respond(opcode, -1, Protocol.STATUS_ERROR, 0, Board.Bounds.ZERO_SIZE);
+						break;
+					}
+					// Mines are placed by the first move, which is thereby always safe
+					Board board = Board.deferred(width, height, numMines, seed);
+					int id = allocateId();
+					games[id] = board;
+					respond(opcode, id, Protocol.STATUS_OK, board.getRemainingTiles(), Board.Bounds.ZERO_SIZE);
+					break;
+				}
+				case Protocol.MOVE: {
+					int id = in.getInt();
+					long move = in.getLong();
+					Board board = getGame(id);
+					Board.ClearTileResult result;
+					try {
+						result = board == null ? null : Move.apply(board, move);
+					} catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+						result = null;
+					}
+					if (result == null) {
+						respond(opcode, id, Protocol.STATUS_ERROR, 0, Board.Bounds.ZERO_SIZE);
+						break;
+					}
+					byte status = board.getRemainingTiles() == 0 ? Protocol.STATUS_WIN
+							: result.wasMine ? Protocol.STATUS_MINE : Protocol.STATUS_OK;
+					if (status != Protocol.STATUS_OK) releaseId(id);
+					respond(opcode, id, status, board.getRemainingTiles(), result.dirtyRegion);
+					break;
+				}
+				case Protocol.CLOSE_GAME: {
+					int id = in.getInt();
+					boolean exists = getGame(id) != null;
+					if (exists) releaseId(id);
+					respond(opcode, id, exists ? Protocol.STATUS_OK : Protocol.STATUS_ERROR, 0, Board.Bounds.ZERO_SIZE);
+					break;
+				}
+				default:
+					throw new AssertionError();
+			}
+		}
+
+		private void respond(byte opcode, int id, byte status, int remaining, Board.Bounds bounds) {
+			Protocol.putResponse(out, opcode, id, status, remaining, bounds);
+		}
+
+		private Board getGame(int id) {
+			return id >= 0 && id < nextId ? games[id] : null;
+		}
+
+		private int allocateId() {
+			if (numFreeIds > 0) return freeIds[--numFreeIds];
+			if (nextId == games.length) games = Arrays.copyOf(games, 2 * nextId);
+			return nextId++;
+		}
+
+		private void releaseId(int id) {
+			games[id] = null;
+			if (numFreeIds == freeIds.length) freeIds = Arrays.copyOf(freeIds, 2 * numFreeIds);
+			freeIds[numFreeIds++] = id;
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package minesweeper.server;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Headless server hosting many independent games over local TCP.
+ * <p>
+ * Usage: {@code GameServer [PORT [LOOPS]]}
+ * <p>
+ * Accepted connections are distributed round-robin over a small number of
+ * {@link EventLoop}s, by default one per available processor. See
+ * {@link Protocol} for the wire format.
+ */
+public final class GameServer implements AutoCloseable {
+	private final ServerSocketChannel serverChannel;
+	private final EventLoop[] loops;
+	private final Thread[] threads;
+
+	public GameServer(int port, int numLoops) throws IOException {
+		serverChannel = ServerSocketChannel.open();
+		serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+		loops = new EventLoop[numLoops];
+		threads = new Thread[numLoops];
+		for (int i = 0; i < numLoops; ++i) {
+			loops[i] = new EventLoop();
+			threads[i] = new Thread(loops[i], "event-loop-" + i);
+			threads[i].start();
+		}
+	}
+
+	/**
+	 * Returns the port the server is listening on.
+	 */
+	public int getPort() throws IOException {
+		return ((InetSocketAddress) serverChannel.getLocalAddress()).getPort();
+	}
+
+	/**
+	 * Accepts connections until the server is closed.
+	 */
+	public void serve() throws IOException {
+		for (int next = 0; serverChannel.isOpen(); next = (next + 1) % loops.length) {
+			SocketChannel channel;
+			try {
+				channel = serverChannel.accept();
+			} catch (IOException e) {
+				if (!serverChannel.isOpen()) break;
+				throw e;
+			}
+			loops[next].register(channel);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		serverChannel.close();
+		for (int i = 0; i < loops.length; ++i) {
+			threads[i].interrupt();
+			loops[i].close();
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : Protocol.DEFAULT_PORT;
+		int numLoops = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+		try (GameServer server = new GameServer(port, numLoops)) {
+			System.out.println("Listening on port " + server.getPort() + " with " + numLoops + " event loops");
+			server.serve();
+		}
+	}
+}
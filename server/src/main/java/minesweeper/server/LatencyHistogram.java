@@ -0,0 +1,52 @@
+package minesweeper.server;
+
+/**
+ * Fixed-size log-linear histogram of latencies in nanoseconds.
+ * <p>
+ * Each power of two is split into {@link #SUB_BUCKETS} linear buckets, which
+ * bounds the relative error of reported percentiles to about 6%.
+ */
+final class LatencyHistogram {
+	private static final int SUB_BITS = 5, SUB_BUCKETS = 1 << SUB_BITS - 1;
+	private final long[] counts = new long[(64 - SUB_BITS + 1) * SUB_BUCKETS + SUB_BUCKETS];
+	private long total;
+
+	private static int indexOf(long value) {
+		if (value < 2 * SUB_BUCKETS) return (int) Math.max(value, 0);
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS + 1;
+		return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+	}
+
+	private static long valueOf(int index) {
+		if (index < 2 * SUB_BUCKETS) return index;
+		int shift = index / SUB_BUCKETS - 1;
+		return (long) (index % SUB_BUCKETS + SUB_BUCKETS) << shift;
+	}
+
+	void record(long nanos) {
+		++counts[indexOf(nanos)];
+		++total;
+	}
+
+	void add(LatencyHistogram other) {
+		for (int i = 0; i < counts.length; ++i) counts[i] += other.counts[i];
+		total += other.total;
+	}
+
+	long getCount() {
+		return total;
+	}
+
+	/**
+	 * Returns the lower bound of the bucket containing the specified percentile.
+	 *
+	 * @param percentile The percentile in the range [0, 1].
+	 * @return The latency in nanoseconds.
+	 */
+	long getPercentile(double percentile) {
+		long target = (long) Math.ceil(percentile * total), seen = 0;
+		for (int i = 0; i < counts.length; ++i)
+			if ((seen += counts[i]) >= target && seen > 0) return valueOf(i);
+		return 0;
+	}
+}
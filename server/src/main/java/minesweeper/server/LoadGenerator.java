@@ -0,0 +1,155 @@
+package minesweeper.server;
+
+import minesweeper.Move;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Load-generating client for {@link GameServer}.
+ * <p>
+ * Usage: {@code LoadGenerator [-p PORT] [-c CONNECTIONS] [-g GAMES] [-d SECONDS] [-w WIDTH] [-h HEIGHT] [-m MINES]}
+ * <p>
+ * Every connection keeps the given number of games running and sends one
+ * random click to each of them per round trip, starting a new game whenever one
+ * is won or lost. The latency of a move is measured from when its request was
+ * written until its own response was read, not over the whole round trip.
+ * Reports the p50/p99 move latency and the number of games per processor.
+ */
+public final class LoadGenerator {
+	private final int port, gamesPerConnection, width, height, numMines;
+	private final long deadline;
+
+	LoadGenerator(int port, int gamesPerConnection, int width, int height, int numMines, long deadline) {
+		this.port = port;
+		this.gamesPerConnection = gamesPerConnection;
+		this.width = width;
+		this.height = height;
+		this.numMines = numMines;
+		this.deadline = deadline;
+	}
+
+	static final class Stats {
+		final LatencyHistogram latencies = new LatencyHistogram();
+		long moves, gamesFinished;
+	}
+
+	/**
+	 * Keeps games running over a single connection until the deadline.
+	 */
+	Stats runConnection() throws IOException {
+		Stats stats = new Stats();
+		Random random = ThreadLocalRandom.current();
+		int n = gamesPerConnection;
+		int[] ids = new int[n], requestEnds = new int[n];
+		// The time each request was written, to match against its own response
+		long[] sent = new long[n];
+		ByteBuffer out = ByteBuffer.allocate(n * Protocol.MAX_REQUEST_SIZE),
+				in = ByteBuffer.allocate(n * Protocol.RESPONSE_SIZE);
+		try (SocketChannel channel = SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), port))) {
+			channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+			Arrays.fill(ids, -1);
+			while (System.nanoTime() < deadline) {
+				out.clear();
+				for (int i = 0; i < n; ++i) {
+					if (ids[i] < 0)
+						Protocol.putNewGame(out, width, height, numMines, random.nextLong());
+					else
+						Protocol.putMove(out, ids[i], Move.pack(Move.Type.CLEAR, random.nextInt(width), random.nextInt(height)));
+					requestEnds[i] = out.position();
+				}
+				out.flip();
+				for (int i = 0; out.hasRemaining(); ) {
+					channel.write(out);
+					long now = System.nanoTime();
+					for (; i < n && requestEnds[i] <= out.position(); ++i) sent[i] = now;
+				}
+
+				// Responses arrive in request order, take each one as soon as it is complete
+				in.clear();
+				for (int i = 0; i < n; ) {
+					if (channel.read(in) < 0) throw new EOFException();
+					long received = System.nanoTime();
+					for (; i < n && in.position() >= (i + 1) * Protocol.RESPONSE_SIZE; ++i) {
+						int offset = i * Protocol.RESPONSE_SIZE;
+						byte opcode = in.get(offset);
+						int id = in.getInt(offset + 1);
+						byte status = in.get(offset + 1 + 4);
+						if (status == Protocol.STATUS_ERROR) throw new IOException("Server rejected request.");
+						if (opcode == Protocol.NEW_GAME) {
+							ids[i] = id;
+							continue;
+						}
+						stats.latencies.record(received - sent[i]);
+						++stats.moves;
+						if (status != Protocol.STATUS_OK) {
+							ids[i] = -1;
+							++stats.gamesFinished;
+						}
+					}
+				}
+			}
+		}
+		return stats;
+	}
+
+	public static void main(String[] args) throws Exception {
+		int port = Protocol.DEFAULT_PORT, connections = 4, games = 250, seconds = 10,
+				width = 30, height = 16, numMines = 50;
+		for (int i = 0; i + 1 < args.length; i += 2) {
+			int value = Integer.parseInt(args[i + 1]);
+			switch (args[i]) {
+				case "-p": port = value; break;
+				case "-c": connections = value; break;
+				case "-g": games = value; break;
+				case "-d": seconds = value; break;
+				case "-w": width = value; break;
+				case "-h": height = value; break;
+				case "-m": numMines = value; break;
+				default: throw new IllegalArgumentException("Unknown option " + args[i]);
+			}
+		}
+
+		long start = System.nanoTime();
+		LoadGenerator generator = new LoadGenerator(port, games, width, height, numMines,
+				start + seconds * 1_000_000_000L);
+		ExecutorService executor = Executors.newFixedThreadPool(connections);
+		Stats total = new Stats();
+		try {
+			Callable<Stats> task = generator::runConnection;
+			List<Future<Stats>> futures = new ArrayList<>();
+			for (int i = 0; i < connections; ++i) futures.add(executor.submit(task));
+			for (Future<Stats> future : futures) {
+				Stats stats = future.get();
+				total.latencies.add(stats.latencies);
+				total.moves += stats.moves;
+				total.gamesFinished += stats.gamesFinished;
+			}
+		} finally {
+			executor.shutdown();
+		}
+		double elapsed = (System.nanoTime() - start) / 1e9;
+		int cores = Runtime.getRuntime().availableProcessors();
+
+		System.out.printf("%d concurrent games over %d connections for %.1f s%n", connections * games, connections, elapsed);
+		System.out.printf("moves: %d (%.0f/s), latency p50 %.1f us, p99 %.1f us%n", total.moves, total.moves / elapsed,
+				total.latencies.getPercentile(0.5) / 1e3, total.latencies.getPercentile(0.99) / 1e3);
+		System.out.printf("games finished: %d (%.0f/s), %.1f games/s and %d concurrent games per core%n",
+				total.gamesFinished, total.gamesFinished / elapsed, total.gamesFinished / elapsed / cores,
+				connections * games / cores);
+	}
+}
@@ -0,0 +1,116 @@
+package minesweeper.server;
+
+import minesweeper.Board;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The binary wire protocol spoken between game server and clients.
+ * <p>
+ * All values are big-endian. Every request starts with an opcode byte and has a
+ * fixed size determined by the opcode:
+ * <pre>
+ * NEW_GAME   int width, int height, int numMines, long seed
+ * MOVE       int gameId, long move (packed as by {@link minesweeper.Move})
+ * CLOSE_GAME int gameId
+ * </pre>
+ * Each request is answered by exactly one response of {@link #RESPONSE_SIZE} bytes,
+ * in the order the requests were sent on the connection:
+ * <pre>
+ * byte opcode of the request, int gameId, byte status, int remaining tiles,
+ * int minX, int minY, int maxX, int maxY of the dirty region
+ * </pre>
+ * Game ids are only valid on the connection that created them. Mines are only
+ * placed by the first move of a game, which is thereby always safe. A game is
+ * discarded by the server once it is won or lost.
+ */
+final class Protocol {
+	static final int DEFAULT_PORT = 7777;
+
+	static final byte NEW_GAME = 1, MOVE = 2, CLOSE_GAME = 3;
+
+	static final byte STATUS_OK = 0,
+	/**
+	 * A mine was detonated and the game is over.
+	 */
+	STATUS_MINE = 1,
+	/**
+	 * All mine-free tiles have been revealed and the game is over.
+	 */
+	STATUS_WIN = 2,
+	/**
+	 * The request was invalid, e.g. referred to an unknown game.
+	 */
+	STATUS_ERROR = 3;
+
+	static final int RESPONSE_SIZE = 1 + 4 + 1 + 4 + 4 * 4;
+	static final int MAX_REQUEST_SIZE = 1 + 3 * 4 + 8;
+	/**
+	 * The maximum number of tiles of a board hosted by the server.
+	 */
+	static final int MAX_TILES = 1 << 22;
+
+	private Protocol() {}
+
+	/**
+	 * Returns the size of a request including the opcode, or -1 if the opcode is unknown.
+	 */
+	static int requestSize(byte opcode) {
+		switch (opcode) {
+			case NEW_GAME:
+				return MAX_REQUEST_SIZE;
+			case MOVE:
+				return 1 + 4 + 8;
+			case CLOSE_GAME:
+				return 1 + 4;
+			default:
+				return -1;
+		}
+	}
+
+	static void putNewGame(ByteBuffer out, int width, int height, int numMines, long seed) {
+		out.put(NEW_GAME).putInt(width).putInt(height).putInt(numMines).putLong(seed);
+	}
+
+	static void putMove(ByteBuffer out, int gameId, long move) {
+		out.put(MOVE).putInt(gameId).putLong(move);
+	}
+
+	static void putCloseGame(ByteBuffer out, int gameId) {
+		out.put(CLOSE_GAME).putInt(gameId);
+	}
+
+	static void putResponse(ByteBuffer out, byte opcode, int gameId, byte status, int remaining, Board.Bounds dirtyRegion) {
+		out.put(opcode).putInt(gameId).put(status).putInt(remaining)
+				.putInt(dirtyRegion.minX).putInt(dirtyRegion.minY).putInt(dirtyRegion.maxX).putInt(dirtyRegion.maxY);
+	}
+
+	/**
+	 * A decoded response.
+	 */
+	static final class Response {
+		final byte opcode, status;
+		final int gameId, remaining;
+		final Board.Bounds dirtyRegion;
+
+		private Response(byte opcode, int gameId, byte status, int remaining, Board.Bounds dirtyRegion) {
+			this.opcode = opcode;
+			this.gameId = gameId;
+			this.status = status;
+			this.remaining = remaining;
+			this.dirtyRegion = dirtyRegion;
+		}
+
+		/**
+		 * Reads a response of {@link #RESPONSE_SIZE} bytes.
+		 */
+		static Response get(ByteBuffer in) {
+			byte opcode = in.get();
+			int gameId = in.getInt();
+			byte status = in.get();
+			int remaining = in.getInt();
+			int minX = in.getInt(), minY = in.getInt();
+			return new Response(opcode, gameId, status, remaining, new Board.Bounds(minX, minY, in.getInt(), in.getInt()));
+		}
+	}
+}
@@ -0,0 +1,180 @@
+package minesweeper.server;
+
+import minesweeper.Board;
+import minesweeper.Move;
+import org.junit.jupiter.api.Test;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Plays games against a server on an ephemeral loopback port, mirroring every
+ * move on a local board generated from the same seed.
+ */
+public class GameServerTest {
+	private static final int WIDTH = 9, HEIGHT = 9, MINES = 10;
+
+	/**
+	 * A server running on its own thread until closed.
+	 */
+	private static GameServer startServer() throws IOException {
+		GameServer server = new GameServer(0, 1);
+		Thread thread = new Thread(() -> {
+			try {
+				server.serve();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}, "game-server");
+		thread.setDaemon(true);
+		thread.start();
+		return server;
+	}
+
+	private static SocketChannel connect(GameServer server) throws IOException {
+		return SocketChannel.open(new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort()));
+	}
+
+	private static Protocol.Response send(SocketChannel channel, ByteBuffer request) throws IOException {
+		request.flip();
+		while (request.hasRemaining()) channel.write(request);
+		request.clear();
+		ByteBuffer in = ByteBuffer.allocate(Protocol.RESPONSE_SIZE);
+		while (in.hasRemaining()) if (channel.read(in) < 0) throw new EOFException();
+		in.flip();
+		return Protocol.Response.get(in);
+	}
+
+	private static Protocol.Response move(SocketChannel channel, ByteBuffer request, int id, long move) throws IOException {
+		Protocol.putMove(request, id, move);
+		return send(channel, request);
+	}
+
+	/**
+	 * Sends a move to the server and checks the response against the same move on the local board.
+	 */
+	private static Protocol.Response mirror(SocketChannel channel, ByteBuffer request, int id, Board board, long move) throws IOException {
+		Protocol.Response response = move(channel, request, id, move);
+		Board.ClearTileResult result = Move.apply(board, move);
+		assertEquals(Protocol.MOVE, response.opcode);
+		assertEquals(id, response.gameId);
+		assertEquals(board.getRemainingTiles(), response.remaining);
+		assertEquals(result.dirtyRegion, response.dirtyRegion);
+		return response;
+	}
+
+	private static int newGame(SocketChannel channel, ByteBuffer request, long seed) throws IOException {
+		Protocol.putNewGame(request, WIDTH, HEIGHT, MINES, seed);
+		Protocol.Response response = send(channel, request);
+		assertEquals(Protocol.NEW_GAME, response.opcode);
+		assertEquals(Protocol.STATUS_OK, response.status);
+		assertEquals(WIDTH * HEIGHT - MINES, response.remaining);
+		return response.gameId;
+	}
+
+	@Test
+	void testPlayGames() throws IOException {
+		try (GameServer server = startServer(); SocketChannel channel = connect(server)) {
+			ByteBuffer request = ByteBuffer.allocate(Protocol.MAX_REQUEST_SIZE);
+
+			// Flag every mine around a digit and chord it, then step on a mine
+			int id = newGame(channel, request, 1);
+			Board board = Board.deferred(WIDTH, HEIGHT, MINES, 1);
+			assertEquals(Protocol.STATUS_OK, mirror(channel, request, id, board, Move.pack(Move.Type.CLEAR, 4, 4)).status);
+			int digitX = -1, digitY = -1;
+			for (int x = 0; x < WIDTH && digitX < 0; ++x)
+				for (int y = 0; y < HEIGHT; ++y)
+					if ((board.getTile(x, y) & Board.REVEALED_BIT) != 0 && board.getNeighbouringMineCount(x, y) > 0) {
+						digitX = x;
+						digitY = y;
+						break;
+					}
+			assertTrue(digitX >= 0);
+			int mineX = -1, mineY = -1;
+			for (int x = Math.max(digitX - 1, 0); x <= Math.min(digitX + 1, WIDTH - 1); ++x)
+				for (int y = Math.max(digitY - 1, 0); y <= Math.min(digitY + 1, HEIGHT - 1); ++y)
+					if ((board.getTile(x, y) & Board.MINE_BIT) != 0) {
+						assertEquals(Protocol.STATUS_OK, mirror(channel, request, id, board, Move.pack(Move.Type.FLAG, x, y)).status);
+						mineX = x;
+						mineY = y;
+					}
+			assertEquals(Protocol.STATUS_OK, mirror(channel, request, id, board, Move.pack(Move.Type.CHORD, digitX, digitY)).status);
+			// Flagged tiles cannot be cleared, so remove the flag first
+			assertEquals(Protocol.STATUS_OK, mirror(channel, request, id, board, Move.pack(Move.Type.FLAG, mineX, mineY)).status);
+			assertEquals(Protocol.STATUS_MINE, mirror(channel, request, id, board, Move.pack(Move.Type.CLEAR, mineX, mineY)).status);
+			// Lost games are discarded
+			assertEquals(Protocol.STATUS_ERROR, move(channel, request, id, Move.pack(Move.Type.CLEAR, 0, 0)).status);
+
+			// Clear every safe tile
+			id = newGame(channel, request, 2);
+			board = Board.deferred(WIDTH, HEIGHT, MINES, 2);
+			assertEquals(Protocol.STATUS_OK, mirror(channel, request, id, board, Move.pack(Move.Type.CLEAR, 4, 4)).status);
+			byte status = Protocol.STATUS_OK;
+			for (int x = 0; x < WIDTH; ++x)
+				for (int y = 0; y < HEIGHT; ++y)
+					if ((board.getTile(x, y) & (Board.MINE_BIT | Board.REVEALED_BIT)) == 0)
+						status = mirror(channel, request, id, board, Move.pack(Move.Type.CLEAR, x, y)).status;
+			assertEquals(Protocol.STATUS_WIN, status);
+			assertEquals(0, board.getRemainingTiles());
+
+			id = newGame(channel, request, 3);
+			Protocol.putCloseGame(request, id);
+			Protocol.Response response = send(channel, request);
+			assertEquals(Protocol.CLOSE_GAME, response.opcode);
+			assertEquals(Protocol.STATUS_OK, response.status);
+			Protocol.putCloseGame(request, id);
+			assertEquals(Protocol.STATUS_ERROR, send(channel, request).status);
+			assertEquals(Protocol.STATUS_ERROR, move(channel, request, id, Move.pack(Move.Type.CLEAR, 0, 0)).status);
+		}
+	}
+
+	@Test
+	void testRejectsInvalidRequests() throws IOException {
+		try (GameServer server = startServer(); SocketChannel channel = connect(server)) {
+			ByteBuffer request = ByteBuffer.allocate(Protocol.MAX_REQUEST_SIZE);
+			Protocol.putNewGame(request, 0, HEIGHT, MINES, 1);
+			Protocol.Response response = send(channel, request);
+			assertEquals(Protocol.STATUS_ERROR, response.status);
+			assertEquals(-1, response.gameId);
+			Protocol.putNewGame(request, WIDTH, HEIGHT, WIDTH * HEIGHT, 1);
+			assertEquals(Protocol.STATUS_ERROR, send(channel, request).status);
+
+			assertEquals(Protocol.STATUS_ERROR, move(channel, request, 1234, Move.pack(Move.Type.CLEAR, 0, 0)).status);
+			int id = newGame(channel, request, 1);
+			assertEquals(Protocol.STATUS_ERROR, move(channel, request, id, Move.pack(Move.Type.CLEAR, WIDTH, 0)).status);
+			// A move type without meaning
+			assertEquals(Protocol.STATUS_ERROR, move(channel, request, id, 3L << 62).status);
+			// The game survives bad moves
+			assertEquals(Protocol.STATUS_OK, move(channel, request, id, Move.pack(Move.Type.FLAG, 0, 0)).status);
+
+			// A malformed frame closes the connection
+			request.put((byte) 99).putInt(id);
+			request.flip();
+			while (request.hasRemaining()) channel.write(request);
+			assertEquals(-1, channel.read(ByteBuffer.allocate(Protocol.RESPONSE_SIZE)));
+		}
+	}
+
+	@Test
+	void testLoadGeneratorTimesEveryMove() throws IOException {
+		try (GameServer server = startServer()) {
+			long start = System.nanoTime();
+			LoadGenerator generator = new LoadGenerator(server.getPort(), 64, WIDTH, HEIGHT, MINES, start + 200_000_000L);
+			LoadGenerator.Stats stats = generator.runConnection();
+			long elapsed = System.nanoTime() - start;
+			assertTrue(stats.moves > 0);
+			assertTrue(stats.gamesFinished > 0);
+			// Every move got its own latency sample, which lies within the run
+			assertEquals(stats.moves, stats.latencies.getCount());
+			assertTrue(stats.latencies.getPercentile(1) <= elapsed);
+		}
+	}
+}
@@ -0,0 +1,45 @@
+package minesweeper.server;
+
+import minesweeper.Board;
+import minesweeper.Move;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ProtocolTest {
+	@Test
+	void testRequestSizes() {
+		ByteBuffer out = ByteBuffer.allocate(Protocol.MAX_REQUEST_SIZE);
+		Protocol.putNewGame(out, 30, 16, 99, -1L);
+		assertEquals(Protocol.requestSize(Protocol.NEW_GAME), out.position());
+		out.clear();
+		Protocol.putMove(out, 7, Move.pack(Move.Type.CHORD, 29, 15));
+		assertEquals(Protocol.requestSize(Protocol.MOVE), out.position());
+		out.flip();
+		assertEquals(Protocol.MOVE, out.get());
+		assertEquals(7, out.getInt());
+		assertEquals(Move.pack(Move.Type.CHORD, 29, 15), out.getLong());
+		out.clear();
+		Protocol.putCloseGame(out, 7);
+		assertEquals(Protocol.requestSize(Protocol.CLOSE_GAME), out.position());
+		assertEquals(-1, Protocol.requestSize((byte) 99));
+	}
+
+	@Test
+	void testResponseRoundTrip() {
+		ByteBuffer buffer = ByteBuffer.allocate(Protocol.RESPONSE_SIZE);
+		Board.Bounds region = new Board.Bounds(1, 2, 30, 16);
+		Protocol.putResponse(buffer, Protocol.MOVE, 12345, Protocol.STATUS_MINE, 381, region);
+		assertEquals(Protocol.RESPONSE_SIZE, buffer.position());
+		buffer.flip();
+		Protocol.Response response = Protocol.Response.get(buffer);
+		assertEquals(0, buffer.remaining());
+		assertEquals(Protocol.MOVE, response.opcode);
+		assertEquals(12345, response.gameId);
+		assertEquals(Protocol.STATUS_MINE, response.status);
+		assertEquals(381, response.remaining);
+		assertEquals(region, response.dirtyRegion);
+	}
+}